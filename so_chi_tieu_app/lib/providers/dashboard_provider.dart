@@ -41,16 +41,15 @@ class DashboardProvider with ChangeNotifier {
         _dashboardService.getSummary(month: _selectedMonth, year: _selectedYear),
         _dashboardService.getExpenseByCategory(month: _selectedMonth, year: _selectedYear),
         _dashboardService.getMonthlyTrend(),
-        _transactionService.getAll(),
+        _transactionService.getRecent(5),
       ]);
       
       _summary = results[0] as DashboardSummary?;
       _expenseByCategory = results[1] as List<CategoryExpense>;
       _monthlyTrend = results[2] as List<MonthlyTrend>;
       
-      // Get recent 5 transactions
-      final allTransactions = results[3] as List<Transaction>;
-      _recentTransactions = allTransactions.take(5).toList();
+      // Recent 5 transactions (first page, newest first)
+      _recentTransactions = results[3] as List<Transaction>;
       
       _isLoading = false;
       notifyListeners();
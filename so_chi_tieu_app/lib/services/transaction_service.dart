@@ -8,31 +8,25 @@ import 'api_service.dart';
 class TransactionService {
   final ApiService _api = ApiService();
   
-  /// Lấy tất cả giao dịch
+  // Số giao dịch mỗi trang khi đọc hết danh sách (bằng app.transactions.max-page-size của server)
+  static const int _pageSize = 200;
+  
+  /// Lấy tất cả giao dịch (đọc lần lượt các trang theo nextCursor)
   Future<List<Transaction>> getAll() async {
     try {
-      final response = await _api.get(ApiConstants.transactions);
-      
-      if (response.data['success'] == true) {
-        final List data = response.data['data'];
-        return data.map((e) => Transaction.fromJson(e)).toList();
-      }
-      return [];
+      return await _getAllPages({});
     } catch (e) {
       print('Get transactions error: $e');
       rethrow;
     }
   }
   
-  /// Lấy giao dịch theo khoảng thời gian
-  Future<List<Transaction>> getByDateRange(DateTime startDate, DateTime endDate) async {
+  /// Lấy các giao dịch gần nhất (chỉ một trang)
+  Future<List<Transaction>> getRecent(int limit) async {
     try {
       final response = await _api.get(
         ApiConstants.transactions,
-        queryParams: {
-          'startDate': startDate.toIso8601String().split('T')[0],
-          'endDate': endDate.toIso8601String().split('T')[0],
-        },
+        queryParams: {'size': limit},
       );
       
       if (response.data['success'] == true) {
@@ -40,6 +34,19 @@ class TransactionService {
         return data.map((e) => Transaction.fromJson(e)).toList();
       }
       return [];
+    } catch (e) {
+      print('Get recent transactions error: $e');
+      rethrow;
+    }
+  }
+  
+  /// Lấy giao dịch theo khoảng thời gian
+  Future<List<Transaction>> getByDateRange(DateTime startDate, DateTime endDate) async {
+    try {
+      return await _getAllPages({
+        'startDate': startDate.toIso8601String().split('T')[0],
+        'endDate': endDate.toIso8601String().split('T')[0],
+      });
     } catch (e) {
       print('Get transactions by date error: $e');
       rethrow;
@@ -49,18 +56,9 @@ class TransactionService {
   /// Lấy giao dịch theo loại (INCOME/EXPENSE)
   Future<List<Transaction>> getByType(TransactionType type) async {
     try {
-      final response = await _api.get(
-        ApiConstants.transactions,
-        queryParams: {
-          'type': type == TransactionType.INCOME ? 'INCOME' : 'EXPENSE',
-        },
-      );
-      
-      if (response.data['success'] == true) {
-        final List data = response.data['data'];
-        return data.map((e) => Transaction.fromJson(e)).toList();
-      }
-      return [];
+      return await _getAllPages({
+        'type': type == TransactionType.INCOME ? 'INCOME' : 'EXPENSE',
+      });
     } catch (e) {
       print('Get transactions by type error: $e');
       rethrow;
@@ -113,4 +111,31 @@ class TransactionService {
       rethrow;
     }
   }
+  
+  /// GET /api/transactions trả về từng trang kèm nextCursor (null = trang cuối),
+  /// đọc đến hết để có toàn bộ danh sách
+  Future<List<Transaction>> _getAllPages(Map<String, dynamic> filters) async {
+    final List<Transaction> transactions = [];
+    String? cursor;
+    
+    do {
+      final response = await _api.get(
+        ApiConstants.transactions,
+        queryParams: {
+          ...filters,
+          'size': _pageSize,
+          if (cursor != null) 'cursor': cursor,
+        },
+      );
+      
+      if (response.data['success'] != true) {
+        break;
+      }
+      final List data = response.data['data'];
+      transactions.addAll(data.map((e) => Transaction.fromJson(e)));
+      cursor = response.data['nextCursor'];
+    } while (cursor != null);
+    
+    return transactions;
+  }
 }
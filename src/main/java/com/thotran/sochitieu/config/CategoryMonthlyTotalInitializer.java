@@ -0,0 +1,57 @@
+package com.thotran.sochitieu.config;
+
+import com.thotran.sochitieu.repository.CategoryDailyTotalRepository;
+import com.thotran.sochitieu.repository.CategoryMonthlyTotalRepository;
+import com.thotran.sochitieu.repository.TransactionRepository;
+import com.thotran.sochitieu.service.CategoryDailyTotalService;
+import com.thotran.sochitieu.service.CategoryMonthlyTotalService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.stereotype.Component;
+
+/**
+ * Khởi tạo các bảng tổng hợp (theo tháng, theo ngày) từ dữ liệu giao dịch đã có.
+ * 
+ * Mỗi bảng tự được dựng khi còn rỗng (lần đầu triển khai tính năng), trước khi ứng dụng nhận request.
+ * Sau đó các bảng được duy trì tăng dần bởi CategoryMonthlyTotalService / CategoryDailyTotalService.
+ * 
+ * Dựng lại toàn bộ (VD: sau khi sửa dữ liệu trực tiếp trong DB): khởi động với tham số
+ * --rebuild-monthly-totals hoặc đặt app.monthly-totals.rebuild-on-startup=true.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryMonthlyTotalInitializer {
+    
+    private static final String REBUILD_OPTION = "rebuild-monthly-totals";
+    
+    private final CategoryMonthlyTotalRepository totalRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryMonthlyTotalService totalService;
+    private final CategoryDailyTotalRepository dailyTotalRepository;
+    private final CategoryDailyTotalService dailyTotalService;
+    private final ApplicationArguments arguments;
+    
+    @Value("${app.monthly-totals.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+    
+    @PostConstruct
+    public void initialize() {
+        boolean forced = rebuildOnStartup || arguments.containsOption(REBUILD_OPTION);
+        if (!forced && transactionRepository.count() == 0) {
+            return;
+        }
+        
+        if (forced || totalRepository.count() == 0) {
+            int rows = totalService.rebuild();
+            log.info("Built {} category monthly total rows from existing transactions", rows);
+        }
+        if (forced || dailyTotalRepository.count() == 0) {
+            int rows = dailyTotalService.rebuild();
+            log.info("Built {} category daily total rows from existing transactions", rows);
+        }
+    }
+}
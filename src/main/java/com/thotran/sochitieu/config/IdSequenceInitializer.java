@@ -0,0 +1,101 @@
+package com.thotran.sochitieu.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Đồng bộ các sequence cấp ID với dữ liệu đã có khi khởi động.
+ *
+ * Các bảng trước đây dùng AUTO_INCREMENT/IDENTITY; sequence mới tạo bắt đầu từ 1
+ * nên phải được đẩy lên sau MAX(id) hiện tại để không cấp trùng ID.
+ * PostgreSQL dùng sequence thật, MySQL dùng bảng mô phỏng (cột next_val) do Hibernate tạo.
+ * Chạy sau khi EntityManagerFactory đã cập nhật schema (ddl-auto).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+    
+    // Trùng với allocationSize của @SequenceGenerator trên các entity
+    private static final int ALLOCATION_SIZE = 50;
+    
+    // Bảng dữ liệu -> sequence tương ứng
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "transactions", "transactions_seq",
+            "budgets", "budgets_seq",
+            "categories", "categories_seq",
+            "notifications", "notifications_seq",
+            "recurring_transactions", "recurring_transactions_seq"
+    );
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Chỉ để đảm bảo schema (bảng + sequence) đã được tạo trước khi chạy
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    public void synchronizeSequences() {
+        boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName()
+                        .toLowerCase(Locale.ROOT).contains("postgres"));
+        
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (maxId == null || maxId == 0) {
+                return;
+            }
+            
+            if (postgres) {
+                synchronizePostgresSequence(sequence, maxId);
+            } else {
+                synchronizeTableSequence(sequence, maxId);
+            }
+        });
+    }
+    
+    /**
+     * PostgreSQL: khi is_called = true, nextval tiếp theo = last_value + ALLOCATION_SIZE,
+     * Hibernate cấp các ID (last_value, last_value + ALLOCATION_SIZE].
+     * Sequence chưa từng được gọi (is_called = false, VD: vừa tạo với last_value = 1) trả về chính
+     * last_value ở lần nextval đầu, khối đó có thể trùng ID đã có nên cũng phải được đẩy lên.
+     */
+    private void synchronizePostgresSequence(String sequence, long maxId) {
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        if (Boolean.TRUE.equals(state.get("is_called")) && lastValue >= maxId) {
+            return;
+        }
+        
+        long target = Math.max(maxId, lastValue);
+        jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', ?, true)", Long.class, target);
+        log.info("Sequence {} moved to {}", sequence, target);
+    }
+    
+    /**
+     * MySQL: giá trị next_val đọc được là cận trên của khối,
+     * Hibernate cấp các ID [next_val - ALLOCATION_SIZE + 1, next_val]
+     */
+    private void synchronizeTableSequence(String sequence, long maxId) {
+        long required = maxId + ALLOCATION_SIZE;
+        List<Long> current = jdbcTemplate.queryForList("SELECT next_val FROM " + sequence, Long.class);
+        
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + sequence + " (next_val) VALUES (?)", required);
+        } else if (current.get(0) < required) {
+            jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", required, required);
+        } else {
+            return;
+        }
+        log.info("Sequence table {} moved to {}", sequence, required);
+    }
+}
@@ -1,6 +1,7 @@
 package com.thotran.sochitieu.config;
 
 import com.thotran.sochitieu.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +31,11 @@ public class SecurityConfig {
             "/error"                    // Error page
     };
     
+    // Các endpoints chỉ dành cho ADMIN (role lấy từ claim "role" của JWT)
+    private static final String[] ADMIN_ENDPOINTS = {
+            "/api/admin/**"
+    };
+    
     /**
      * Cấu hình security filter chain
      */
@@ -46,7 +52,10 @@ public class SecurityConfig {
             
             // Cấu hình authorization
             .authorizeHttpRequests(auth -> auth
+                    // Dispatch trả kết quả xử lý bất đồng bộ: request gốc đã được xác thực
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                     .requestMatchers(PUBLIC_ENDPOINTS).permitAll()  // Public endpoints
+                    .requestMatchers(ADMIN_ENDPOINTS).hasRole("ADMIN") // Chỉ admin
                     .anyRequest().authenticated()                    // Các endpoint khác cần auth
             )
             
@@ -0,0 +1,97 @@
+package com.thotran.sochitieu.controller;
+
+import com.thotran.sochitieu.dto.request.AdminMetric;
+import com.thotran.sochitieu.dto.response.AdminAnalyticsResponse;
+import com.thotran.sochitieu.dto.response.ApiResponse;
+import com.thotran.sochitieu.service.AdminAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST Controller cho thống kê toàn hệ thống (chỉ ROLE_ADMIN, xem SecurityConfig).
+ * Base path: /api/admin/analytics
+ */
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminAnalyticsController {
+    
+    private final AdminAnalyticsService adminAnalyticsService;
+    
+    /**
+     * GET /api/admin/analytics
+     * Tính một chỉ số trên dữ liệu của mọi user. Xử lý bất đồng bộ: không giữ thread của
+     * server trong lúc chờ các phần truy vấn chạy song song.
+     * 
+     * @param metric SPEND_BY_CATEGORY, ACTIVE_USERS_PER_DAY hoặc TRANSACTIONS_PER_MONTH
+     * @param startDate Ngày bắt đầu (mặc định: 12 tháng trước)
+     * @param endDate Ngày kết thúc (mặc định: hôm nay)
+     * @param limit Số dòng tối đa (mặc định: 100)
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<ApiResponse<AdminAnalyticsResponse>>> getMetric(
+            @RequestParam AdminMetric metric,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusMonths(12).plusDays(1);
+        
+        return adminAnalyticsService.run(metric, start, end, limit, (completed, total) -> { })
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.success(result)));
+    }
+    
+    /**
+     * GET /api/admin/analytics/stream
+     * Giống GET /api/admin/analytics nhưng trả về Server-Sent Events: sự kiện "progress"
+     * ({completed, total}) sau mỗi phần hoàn thành, cuối cùng là sự kiện "result"
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMetric(
+            @RequestParam AdminMetric metric,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusMonths(12).plusDays(1);
+        
+        SseEmitter emitter = new SseEmitter();
+        adminAnalyticsService.run(metric, start, end, limit, (completed, total) ->
+                        send(emitter, "progress", Map.of("completed", completed, "total", total)))
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        emitter.completeWithError(ex);
+                        return;
+                    }
+                    send(emitter, "result", ApiResponse.success(result));
+                    emitter.complete();
+                });
+        return emitter;
+    }
+    
+    /**
+     * Gửi một sự kiện SSE; client đã ngắt kết nối thì bỏ qua (kết quả vẫn được tính xong)
+     */
+    private void send(SseEmitter emitter, String name, Object data) {
+        try {
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Admin analytics stream closed: {}", ex.getMessage());
+        }
+    }
+}
@@ -2,15 +2,19 @@ package com.thotran.sochitieu.controller;
 
 import com.thotran.sochitieu.dto.response.ApiResponse;
 import com.thotran.sochitieu.dto.response.CategoryChartResponse;
+import com.thotran.sochitieu.dto.response.DashboardOverviewResponse;
 import com.thotran.sochitieu.dto.response.DashboardSummaryResponse;
 import com.thotran.sochitieu.dto.response.MonthlyTrendResponse;
 import com.thotran.sochitieu.security.SecurityUtils;
+import com.thotran.sochitieu.service.DashboardOverviewService;
 import com.thotran.sochitieu.service.DashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -23,6 +27,7 @@ import java.util.List;
 public class DashboardController {
     
     private final DashboardService dashboardService;
+    private final DashboardOverviewService dashboardOverviewService;
     
     /**
      * Lấy userId từ JWT token
@@ -31,6 +36,33 @@ public class DashboardController {
         return SecurityUtils.getCurrentUserId();
     }
     
+    /**
+     * GET /api/dashboard/overview
+     * Lấy toàn bộ dữ liệu màn hình Dashboard trong một request: tổng quan, biểu đồ chi tiêu
+     * theo category, xu hướng thu/chi và số thông báo chưa đọc (các phần được tính song song)
+     * 
+     * @param month Tháng (mặc định: tháng hiện tại)
+     * @param year Năm (mặc định: năm hiện tại)
+     * @param months Số tháng của biểu đồ xu hướng (mặc định: 6)
+     * @param debug true = trả kèm thời gian xử lý từng phần (timings, ms)
+     */
+    @GetMapping("/overview")
+    public ResponseEntity<ApiResponse<DashboardOverviewResponse>> getOverview(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false, defaultValue = "6") Integer months,
+            @RequestParam(required = false, defaultValue = "false") boolean debug) {
+        
+        LocalDate now = LocalDate.now();
+        int queryMonth = month != null ? month : now.getMonthValue();
+        int queryYear = year != null ? year : now.getYear();
+        
+        DashboardOverviewResponse overview = dashboardOverviewService.getOverview(
+                getCurrentUserId(), queryMonth, queryYear, months, debug);
+        
+        return ResponseEntity.ok(ApiResponse.success(overview));
+    }
+    
     /**
      * GET /api/dashboard/summary
      * Lấy tổng quan tài chính
@@ -76,14 +108,19 @@ public class DashboardController {
      * GET /api/dashboard/chart/monthly-trend
      * Lấy xu hướng thu/chi theo tháng
      * 
-     * @param months Số tháng cần lấy (mặc định: 6)
+     * @param months Số tháng gần nhất cần lấy (mặc định: 6), bỏ qua nếu truyền from
+     * @param from Tháng bắt đầu (yyyy-MM), dùng cho khoảng dài nhiều năm
+     * @param to Tháng kết thúc (yyyy-MM, mặc định: tháng hiện tại)
      */
     @GetMapping("/chart/monthly-trend")
     public ResponseEntity<ApiResponse<List<MonthlyTrendResponse>>> getMonthlyTrend(
-            @RequestParam(required = false, defaultValue = "6") Integer months) {
+            @RequestParam(required = false, defaultValue = "6") Integer months,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
         
-        List<MonthlyTrendResponse> trendData = dashboardService.getMonthlyTrend(
-                getCurrentUserId(), months);
+        List<MonthlyTrendResponse> trendData = from != null
+                ? dashboardService.getMonthlyTrend(getCurrentUserId(), from, to != null ? to : YearMonth.now())
+                : dashboardService.getMonthlyTrend(getCurrentUserId(), months);
         
         return ResponseEntity.ok(ApiResponse.success(trendData));
     }
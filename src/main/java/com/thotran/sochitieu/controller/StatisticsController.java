@@ -1,10 +1,20 @@
 package com.thotran.sochitieu.controller;
 
+import com.thotran.sochitieu.dto.request.AggregationDimension;
+import com.thotran.sochitieu.dto.request.PeriodGranularity;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+import com.thotran.sochitieu.dto.response.AggregationResponse;
 import com.thotran.sochitieu.dto.response.ApiResponse;
+import com.thotran.sochitieu.dto.response.CashFlowProjectionResponse;
 import com.thotran.sochitieu.dto.response.CategoryChartResponse;
+import com.thotran.sochitieu.dto.response.CategorySpendingStatsResponse;
 import com.thotran.sochitieu.dto.response.DailyStatisticsResponse;
 import com.thotran.sochitieu.dto.response.MonthComparisonResponse;
+import com.thotran.sochitieu.dto.response.PeriodComparisonResponse;
 import com.thotran.sochitieu.security.SecurityUtils;
+import com.thotran.sochitieu.service.AggregationService;
+import com.thotran.sochitieu.service.CashFlowProjectionService;
+import com.thotran.sochitieu.service.SpendingSketchService;
 import com.thotran.sochitieu.service.StatisticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -24,6 +34,9 @@ import java.util.List;
 public class StatisticsController {
     
     private final StatisticsService statisticsService;
+    private final AggregationService aggregationService;
+    private final SpendingSketchService spendingSketchService;
+    private final CashFlowProjectionService cashFlowProjectionService;
     
     /**
      * Lấy userId từ JWT token
@@ -50,12 +63,21 @@ public class StatisticsController {
     /**
      * GET /api/statistics/daily
      * Thống kê theo ngày trong tháng (cho calendar view)
+     * 
+     * @param month Tháng (mặc định: tháng hiện tại)
+     * @param year Năm (mặc định: năm hiện tại); chỉ truyền year không có month = thống kê theo ngày cả năm
      */
     @GetMapping("/daily")
     public ResponseEntity<ApiResponse<List<DailyStatisticsResponse>>> getDailyStats(
             @RequestParam(required = false) Integer month,
             @RequestParam(required = false) Integer year) {
         
+        if (month == null && year != null) {
+            List<DailyStatisticsResponse> yearData = statisticsService.getYearlyDailyStats(
+                    getCurrentUserId(), year);
+            return ResponseEntity.ok(ApiResponse.success(yearData));
+        }
+        
         LocalDate now = LocalDate.now();
         int queryMonth = month != null ? month : now.getMonthValue();
         int queryYear = year != null ? year : now.getYear();
@@ -82,4 +104,75 @@ public class StatisticsController {
         
         return ResponseEntity.ok(ApiResponse.success(data));
     }
+    
+    /**
+     * GET /api/statistics/periods
+     * So sánh nhiều kỳ, kỳ đầu tiên là mốc (chênh lệch / % thay đổi tính so với kỳ mốc)
+     * VD: ?granularity=MONTH&periods=2024-06,2024-05,2024-04 hoặc ?granularity=YEAR&periods=2024,2023
+     * 
+     * @param granularity MONTH (yyyy-MM, mặc định), QUARTER (yyyy-Qn) hoặc YEAR (yyyy)
+     * @param periods Danh sách kỳ, phân cách bằng dấu phẩy
+     * @param breakdown true = kèm chi tiết theo danh mục của từng kỳ
+     */
+    @GetMapping("/periods")
+    public ResponseEntity<ApiResponse<PeriodComparisonResponse>> comparePeriods(
+            @RequestParam(defaultValue = "MONTH") PeriodGranularity granularity,
+            @RequestParam List<String> periods,
+            @RequestParam(defaultValue = "false") boolean breakdown) {
+        
+        PeriodComparisonResponse data = statisticsService.comparePeriods(
+                getCurrentUserId(), granularity, periods, breakdown);
+        
+        return ResponseEntity.ok(ApiResponse.success(data));
+    }
+    
+    /**
+     * GET /api/statistics/aggregate
+     * Tổng hợp giao dịch theo các chiều tùy chọn trong một câu truy vấn
+     * VD: ?dimensions=CATEGORY,MONTH&startDate=2024-01-01&endDate=2024-12-31&type=EXPENSE&top=10
+     * 
+     * @param dimensions Các chiều nhóm: CATEGORY, TYPE, DAY, WEEK, MONTH, QUARTER, YEAR, WEEKDAY (bỏ trống = tổng chung)
+     * @param filter Bộ lọc giống GET /api/transactions (startDate, endDate, categoryIds, type, minAmount, maxAmount, keyword)
+     * @param top Chỉ lấy N nhóm có tổng tiền lớn nhất, phần còn lại gộp vào nhóm "others"
+     */
+    @GetMapping("/aggregate")
+    public ResponseEntity<ApiResponse<AggregationResponse>> aggregate(
+            @RequestParam(required = false) List<AggregationDimension> dimensions,
+            @ModelAttribute TransactionFilterRequest filter,
+            @RequestParam(required = false) Integer top) {
+        
+        AggregationResponse data = aggregationService.aggregate(
+                getCurrentUserId(), dimensions, filter, top);
+        
+        return ResponseEntity.ok(ApiResponse.success(data));
+    }
+    
+    /**
+     * GET /api/statistics/category-distribution
+     * Phân phối số tiền chi theo danh mục: median, p90, p99, trung bình gần đây
+     * (ước lượng liên tục từ các giao dịch, không đọc lại lịch sử)
+     */
+    @GetMapping("/category-distribution")
+    public ResponseEntity<ApiResponse<List<CategorySpendingStatsResponse>>> getCategoryDistribution() {
+        
+        List<CategorySpendingStatsResponse> data = spendingSketchService.getCategoryStats(getCurrentUserId());
+        
+        return ResponseEntity.ok(ApiResponse.success(data));
+    }
+    
+    /**
+     * GET /api/statistics/cash-flow-projection
+     * Dự báo số dư theo ngày từ hôm nay: giao dịch định kỳ, giao dịch đã nhập cho các ngày tới
+     * và chi tiêu không định kỳ ước tính từ lịch sử
+     * 
+     * @param days Số ngày dự báo (mặc định: 90)
+     */
+    @GetMapping("/cash-flow-projection")
+    public ResponseEntity<ApiResponse<CashFlowProjectionResponse>> getCashFlowProjection(
+            @RequestParam(required = false, defaultValue = "90") Integer days) {
+        
+        CashFlowProjectionResponse data = cashFlowProjectionService.project(getCurrentUserId(), days);
+        
+        return ResponseEntity.ok(ApiResponse.success(data));
+    }
 }
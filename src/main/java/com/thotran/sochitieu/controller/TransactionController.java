@@ -1,19 +1,29 @@
 package com.thotran.sochitieu.controller;
 
+import com.thotran.sochitieu.dto.request.ExportFormat;
+import com.thotran.sochitieu.dto.request.ImportFormat;
+import com.thotran.sochitieu.dto.request.TransactionBatchRequest;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
 import com.thotran.sochitieu.dto.request.TransactionRequest;
 import com.thotran.sochitieu.dto.response.ApiResponse;
+import com.thotran.sochitieu.dto.response.BatchCreateResultResponse;
+import com.thotran.sochitieu.dto.response.CursorPage;
+import com.thotran.sochitieu.dto.response.ImportResultResponse;
 import com.thotran.sochitieu.dto.response.TransactionResponse;
-import com.thotran.sochitieu.entity.TransactionType;
 import com.thotran.sochitieu.security.SecurityUtils;
+import com.thotran.sochitieu.service.TransactionExportService;
+import com.thotran.sochitieu.service.TransactionImportService;
 import com.thotran.sochitieu.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -26,6 +36,8 @@ import java.util.List;
 public class TransactionController {
     
     private final TransactionService transactionService;
+    private final TransactionImportService transactionImportService;
+    private final TransactionExportService transactionExportService;
     
     /**
      * Lấy userId từ JWT token
@@ -49,37 +61,100 @@ public class TransactionController {
                 .body(ApiResponse.success("Tạo giao dịch thành công!", transaction));
     }
     
+    /**
+     * POST /api/transactions/batch
+     * Tạo nhiều giao dịch trong một request (tối đa app.transactions.batch-max-items).
+     * Kết quả trả về theo từng phần tử, phần tử lỗi không ảnh hưởng phần tử khác.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchCreateResultResponse>> createBatch(
+            @Valid @RequestBody TransactionBatchRequest request) {
+        
+        BatchCreateResultResponse result = transactionService.createBatch(getCurrentUserId(), request);
+        
+        String message = String.format("Đã tạo %d giao dịch (%d lỗi)",
+                result.getCreatedCount(), result.getFailedCount());
+        
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success(message, result));
+    }
+    
     /**
      * GET /api/transactions
-     * Lấy danh sách giao dịch với các filter tùy chọn
+     * Tìm kiếm giao dịch (phân trang theo cursor). Các filter có thể kết hợp tùy ý:
+     * startDate, endDate (yyyy-MM-dd), categoryId / categoryIds, type (INCOME/EXPENSE),
+     * minAmount, maxAmount, keyword (mô tả có chứa), sort (DATE_DESC, DATE_ASC, AMOUNT_DESC, AMOUNT_ASC)
      * 
-     * @param startDate Ngày bắt đầu (format: yyyy-MM-dd)
-     * @param endDate Ngày kết thúc (format: yyyy-MM-dd)
-     * @param categoryId Lọc theo danh mục
-     * @param type Lọc theo loại: INCOME hoặc EXPENSE
+     * @param cursor Cursor lấy từ nextCursor của trang trước (bỏ trống = trang đầu)
+     * @param size Số giao dịch mỗi trang (mặc định/tối đa cấu hình trong app.transactions.*)
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<TransactionResponse>>> getAll(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) TransactionType type) {
+            @ModelAttribute TransactionFilterRequest filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         
+        CursorPage<TransactionResponse> page = transactionService.search(
+                getCurrentUserId(), filter, cursor, size);
+        
+        return ResponseEntity.ok(ApiResponse.successWithCursor(page.getItems(), page.getNextCursor()));
+    }
+    
+    /**
+     * POST /api/transactions/import
+     * Import giao dịch hàng loạt từ file sao kê (CSV hoặc OFX)
+     * 
+     * @param file File sao kê (multipart)
+     * @param format CSV hoặc OFX (mặc định: nhận diện theo phần mở rộng file)
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ImportResultResponse>> importStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) ImportFormat format) {
+        
+        ImportResultResponse result = transactionImportService.importStatement(
+                getCurrentUserId(), file, format);
+        
+        String message = String.format("Đã import %d giao dịch (%d dòng lỗi)",
+                result.getImportedCount(), result.getFailedCount());
+        
+        return ResponseEntity.ok(ApiResponse.success(message, result));
+    }
+    
+    /**
+     * GET /api/transactions/export
+     * Export toàn bộ giao dịch (theo cùng bộ lọc với GET /api/transactions) ra file.
+     * Dữ liệu được stream trực tiếp ra response, không giới hạn số dòng.
+     * 
+     * @param format CSV (mặc định) hoặc NDJSON
+     * @param gzip true = nén gzip response
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @ModelAttribute TransactionFilterRequest filter,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        transactionExportService.validate(filter);
+        
+        // Lấy userId trước: body được ghi trên thread khác, không có SecurityContext
         Long userId = getCurrentUserId();
-        List<TransactionResponse> transactions;
-        
-        // Ưu tiên filter theo thứ tự: ngày > category > type > tất cả
-        if (startDate != null && endDate != null) {
-            transactions = transactionService.getByDateRange(userId, startDate, endDate);
-        } else if (categoryId != null) {
-            transactions = transactionService.getByCategory(userId, categoryId);
-        } else if (type != null) {
-            transactions = transactionService.getByType(userId, type);
-        } else {
-            transactions = transactionService.getAllByUser(userId);
-        }
-        
-        return ResponseEntity.ok(ApiResponse.success(transactions));
+        StreamingResponseBody body = output ->
+                transactionExportService.export(userId, filter, format, gzip, output);
+        
+        String filename = "transactions." + (format == ExportFormat.NDJSON ? "ndjson" : "csv")
+                + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : format == ExportFormat.NDJSON
+                        ? MediaType.parseMediaType("application/x-ndjson")
+                        : MediaType.parseMediaType("text/csv;charset=UTF-8");
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(contentType)
+                .body(body);
     }
     
     /**
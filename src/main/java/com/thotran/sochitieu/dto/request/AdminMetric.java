@@ -0,0 +1,10 @@
+package com.thotran.sochitieu.dto.request;
+
+/**
+ * Enum định nghĩa các chỉ số thống kê toàn hệ thống cho admin.
+ */
+public enum AdminMetric {
+    SPEND_BY_CATEGORY,          // Tổng chi theo tên danh mục (gộp danh mục cùng tên của mọi user)
+    ACTIVE_USERS_PER_DAY,       // Số user có giao dịch theo từng ngày
+    TRANSACTIONS_PER_MONTH      // Số giao dịch + tổng tiền theo (tháng, loại)
+}
@@ -0,0 +1,15 @@
+package com.thotran.sochitieu.dto.request;
+
+/**
+ * Enum định nghĩa các chiều nhóm (GROUP BY) cho API tổng hợp giao dịch.
+ */
+public enum AggregationDimension {
+    CATEGORY,   // Danh mục (kèm tên, icon, màu)
+    TYPE,       // INCOME / EXPENSE
+    DAY,        // Ngày, "yyyy-MM-dd"
+    WEEK,       // Tuần ISO, "yyyy-Www"
+    MONTH,      // Tháng, "yyyy-MM"
+    QUARTER,    // Quý, "yyyy-Qn"
+    YEAR,       // Năm
+    WEEKDAY     // Thứ trong tuần (MONDAY..SUNDAY)
+}
@@ -0,0 +1,9 @@
+package com.thotran.sochitieu.dto.request;
+
+/**
+ * Enum định nghĩa định dạng file khi export giao dịch.
+ */
+public enum ExportFormat {
+    CSV,        // Bảng tính (Excel, Google Sheets)
+    NDJSON      // Mỗi dòng một JSON object
+}
@@ -0,0 +1,9 @@
+package com.thotran.sochitieu.dto.request;
+
+/**
+ * Enum định nghĩa định dạng file sao kê khi import giao dịch.
+ */
+public enum ImportFormat {
+    CSV,    // date,amount,type,category,description
+    OFX     // Open Financial Exchange (xuất từ ngân hàng)
+}
@@ -0,0 +1,10 @@
+package com.thotran.sochitieu.dto.request;
+
+/**
+ * Enum định nghĩa độ dài kỳ khi so sánh nhiều kỳ thống kê.
+ */
+public enum PeriodGranularity {
+    MONTH,      // Tháng, định dạng "yyyy-MM"
+    QUARTER,    // Quý, định dạng "yyyy-Qn" (n = 1..4)
+    YEAR        // Năm, định dạng "yyyy"
+}
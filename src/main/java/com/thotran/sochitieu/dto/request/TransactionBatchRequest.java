@@ -0,0 +1,17 @@
+package com.thotran.sochitieu.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO cho request tạo nhiều giao dịch cùng lúc (VD: client offline đồng bộ lại khi có mạng).
+ * Từng giao dịch được kiểm tra riêng, giao dịch lỗi không làm hỏng cả lô.
+ */
+@Data
+public class TransactionBatchRequest {
+    
+    @NotEmpty(message = "Danh sách giao dịch không được để trống")
+    private List<TransactionRequest> transactions;
+}
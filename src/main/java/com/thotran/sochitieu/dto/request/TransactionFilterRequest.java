@@ -0,0 +1,35 @@
+package com.thotran.sochitieu.dto.request;
+
+import com.thotran.sochitieu.entity.TransactionType;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO chứa các điều kiện lọc khi tìm kiếm giao dịch.
+ * Tất cả đều optional và được kết hợp với nhau (AND) trong cùng một câu truy vấn.
+ */
+@Data
+public class TransactionFilterRequest {
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;        // Từ ngày (bao gồm)
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;          // Đến ngày (bao gồm)
+    
+    private Long categoryId;            // Một danh mục (giữ tương thích API cũ)
+    private List<Long> categoryIds;     // Nhiều danh mục
+    
+    private TransactionType type;       // INCOME hoặc EXPENSE
+    
+    private BigDecimal minAmount;       // Số tiền tối thiểu (bao gồm)
+    private BigDecimal maxAmount;       // Số tiền tối đa (bao gồm)
+    
+    private String keyword;             // Mô tả có chứa (không phân biệt hoa thường)
+    
+    private TransactionSort sort;       // Mặc định: DATE_DESC
+}
@@ -0,0 +1,20 @@
+package com.thotran.sochitieu.dto.request;
+
+/**
+ * Enum định nghĩa các kiểu sắp xếp danh sách giao dịch.
+ * Mọi kiểu đều dùng id làm khóa phụ để thứ tự ổn định khi phân trang.
+ */
+public enum TransactionSort {
+    DATE_DESC,      // Mới nhất trước (mặc định)
+    DATE_ASC,       // Cũ nhất trước
+    AMOUNT_DESC,    // Số tiền lớn nhất trước
+    AMOUNT_ASC;     // Số tiền nhỏ nhất trước
+    
+    public boolean isByAmount() {
+        return this == AMOUNT_DESC || this == AMOUNT_ASC;
+    }
+    
+    public boolean isDescending() {
+        return this == DATE_DESC || this == AMOUNT_DESC;
+    }
+}
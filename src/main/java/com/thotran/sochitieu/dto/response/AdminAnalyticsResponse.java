@@ -0,0 +1,40 @@
+package com.thotran.sochitieu.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.thotran.sochitieu.dto.request.AdminMetric;
+import com.thotran.sochitieu.entity.TransactionType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO trả về kết quả một chỉ số thống kê toàn hệ thống (admin).
+ */
+@Data
+@Builder
+public class AdminAnalyticsResponse {
+    
+    private AdminMetric metric;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<Row> rows;
+    
+    private Integer partitions;         // Số phần (khoảng user_id) đã quét song song
+    private Long elapsedMs;
+    
+    /**
+     * Inner class cho một dòng kết quả
+     */
+    @Data
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Row {
+        private String key;             // Tên danh mục / ngày "yyyy-MM-dd" / tháng "yyyy-MM"
+        private TransactionType type;   // Chỉ có ở TRANSACTIONS_PER_MONTH
+        private BigDecimal amount;      // Không có ở ACTIVE_USERS_PER_DAY
+        private Long count;             // Số giao dịch, hoặc số user (ACTIVE_USERS_PER_DAY)
+    }
+}
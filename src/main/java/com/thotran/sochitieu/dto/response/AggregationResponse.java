@@ -0,0 +1,41 @@
+package com.thotran.sochitieu.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.thotran.sochitieu.dto.request.AggregationDimension;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO trả về kết quả tổng hợp giao dịch theo các chiều tùy chọn.
+ */
+@Data
+@Builder
+public class AggregationResponse {
+    
+    private List<AggregationDimension> dimensions;
+    private List<Row> rows;
+    
+    private BigDecimal totalAmount;     // Tổng tiền của mọi nhóm (kể cả nhóm gộp vào "others")
+    private Long totalCount;            // Tổng số giao dịch
+    private Long groupCount;            // Tổng số nhóm trước khi cắt bớt
+    
+    /**
+     * Inner class cho một nhóm kết quả
+     */
+    @Data
+    @Builder
+    public static class Row {
+        // Giá trị các chiều, VD {"category": 3, "categoryName": "Ăn uống", "month": "2024-05"}
+        private Map<String, Object> group;
+        private BigDecimal amount;
+        private Long count;
+        
+        // true = nhóm "others" gộp các nhóm ngoài top N / ngoài giới hạn số dòng
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Boolean others;
+    }
+}
@@ -19,6 +19,7 @@ public class ApiResponse<T> {
     private boolean success = true;     // Trạng thái thành công
     private String message;             // Thông báo (optional)
     private T data;                     // Dữ liệu trả về
+    private String nextCursor;          // Cursor trang kế tiếp (chỉ có với API phân trang)
     
     // === Factory methods để tạo response nhanh ===
     
@@ -43,6 +44,18 @@ public class ApiResponse<T> {
                 .build();
     }
     
+    /**
+     * Tạo response thành công cho API phân trang theo cursor.
+     * nextCursor = null nghĩa là đã hết dữ liệu.
+     */
+    public static <T> ApiResponse<T> successWithCursor(T data, String nextCursor) {
+        return ApiResponse.<T>builder()
+                .success(true)
+                .data(data)
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
     /**
      * Tạo response thành công chỉ với message (không có data)
      */
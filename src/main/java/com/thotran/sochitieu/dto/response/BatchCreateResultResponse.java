@@ -0,0 +1,33 @@
+package com.thotran.sochitieu.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO trả về kết quả tạo giao dịch hàng loạt (theo đúng thứ tự của request).
+ */
+@Data
+@Builder
+public class BatchCreateResultResponse {
+    
+    private int createdCount;           // Số giao dịch đã tạo
+    private int failedCount;            // Số giao dịch bị từ chối
+    private List<ItemResult> results;   // Kết quả của từng phần tử
+    
+    /**
+     * Inner class mô tả kết quả của một phần tử trong lô
+     */
+    @Data
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemResult {
+        private int index;                          // Vị trí trong danh sách request (bắt đầu từ 0)
+        private boolean success;
+        private TransactionResponse transaction;    // Giao dịch đã tạo (nếu thành công)
+        private String message;                     // Lý do lỗi (nếu thất bại)
+    }
+}
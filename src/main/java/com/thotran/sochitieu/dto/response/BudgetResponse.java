@@ -1,15 +1,18 @@
 package com.thotran.sochitieu.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * DTO trả về thông tin ngân sách.
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class BudgetResponse {
     
     private Long id;
@@ -25,4 +28,17 @@ public class BudgetResponse {
     private String categoryName;
     private String categoryIcon;
     private String categoryColor;
+    
+    /**
+     * Constructor dùng cho JPQL constructor expression (projection).
+     * remaining và percentUsed được suy ra từ amount và spent.
+     */
+    public BudgetResponse(Long id, BigDecimal amount, Integer month, Integer year, Long categoryId,
+                          String categoryName, String categoryIcon, String categoryColor, BigDecimal spent) {
+        this(id, amount, spent, amount.subtract(spent),
+                spent.divide(amount, 4, RoundingMode.HALF_UP)
+                        .multiply(BigDecimal.valueOf(100))
+                        .doubleValue(),
+                month, year, categoryId, categoryName, categoryIcon, categoryColor);
+    }
 }
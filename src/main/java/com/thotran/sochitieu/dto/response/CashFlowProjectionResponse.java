@@ -0,0 +1,42 @@
+package com.thotran.sochitieu.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO trả về dự báo số dư theo ngày (giao dịch định kỳ + chi tiêu ước tính từ lịch sử).
+ */
+@Data
+@Builder
+public class CashFlowProjectionResponse {
+    
+    private LocalDate startDate;
+    private LocalDate endDate;
+    
+    private BigDecimal openingBalance;          // Số dư hiện tại (mọi giao dịch đến hết hôm nay)
+    private BigDecimal closingBalance;          // Số dư dự kiến ngày cuối
+    private BigDecimal lowestBalance;           // Số dư dự kiến thấp nhất
+    private LocalDate lowestBalanceDate;
+    
+    private BigDecimal scheduledIncome;         // Thu định kỳ + giao dịch thu đã nhập cho các ngày tới
+    private BigDecimal scheduledExpense;        // Chi định kỳ + giao dịch chi đã nhập cho các ngày tới
+    private BigDecimal estimatedExpense;        // Chi tiêu không định kỳ ước tính từ lịch sử
+    
+    private List<Day> days;
+    
+    /**
+     * Inner class cho dự báo một ngày
+     */
+    @Data
+    @Builder
+    public static class Day {
+        private LocalDate date;
+        private BigDecimal income;
+        private BigDecimal expense;
+        private BigDecimal balance;             // Số dư dự kiến cuối ngày
+    }
+}
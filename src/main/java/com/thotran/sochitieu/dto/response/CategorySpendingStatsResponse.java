@@ -0,0 +1,26 @@
+package com.thotran.sochitieu.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO cho phân phối số tiền chi của một danh mục (ước lượng từ t-digest / EWMA).
+ */
+@Data
+@Builder
+public class CategorySpendingStatsResponse {
+    
+    private Long categoryId;
+    private String categoryName;
+    private String categoryIcon;
+    private String categoryColor;
+    
+    private Long sampleCount;           // Số giao dịch chi đã thống kê
+    private BigDecimal median;          // Mức chi "thông thường" (p50)
+    private BigDecimal p90;             // 90% giao dịch không vượt quá
+    private BigDecimal p99;
+    private BigDecimal recentAverage;   // Trung bình EWMA (ưu tiên giao dịch gần đây)
+    private BigDecimal recentStdDev;    // Độ lệch chuẩn EWMA
+}
@@ -0,0 +1,19 @@
+package com.thotran.sochitieu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Kết quả một trang dữ liệu phân trang theo cursor (keyset).
+ * 
+ * @param <T> Kiểu phần tử trong trang
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> items;              // Các phần tử của trang hiện tại
+    private String nextCursor;          // Cursor để lấy trang tiếp theo (null = hết dữ liệu)
+}
@@ -0,0 +1,25 @@
+package com.thotran.sochitieu.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO trả về toàn bộ dữ liệu màn hình Dashboard trong một lần gọi.
+ */
+@Data
+@Builder
+public class DashboardOverviewResponse {
+    
+    private DashboardSummaryResponse summary;                   // = /api/dashboard/summary
+    private List<CategoryChartResponse> expenseByCategory;      // = /api/dashboard/chart/expense-by-category
+    private List<MonthlyTrendResponse> monthlyTrend;            // = /api/dashboard/chart/monthly-trend
+    private Long unreadNotificationCount;                       // = /api/notifications/count
+    
+    // Thời gian xử lý từng phần (ms), chỉ có khi gọi với debug=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Long> timings;
+}
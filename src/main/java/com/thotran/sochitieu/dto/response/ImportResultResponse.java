@@ -0,0 +1,31 @@
+package com.thotran.sochitieu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO trả về kết quả import giao dịch hàng loạt.
+ */
+@Data
+@Builder
+public class ImportResultResponse {
+    
+    private long totalRows;             // Số dòng dữ liệu đã đọc
+    private long importedCount;         // Số giao dịch đã lưu
+    private long failedCount;           // Số dòng bị lỗi
+    private List<RowError> errors;      // Chi tiết lỗi (giới hạn số lượng)
+    private boolean errorsTruncated;    // true nếu có nhiều lỗi hơn số được liệt kê
+    
+    /**
+     * Inner class mô tả lỗi của một dòng
+     */
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;              // Số dòng trong file (OFX: thứ tự giao dịch)
+        private String message;
+    }
+}
@@ -0,0 +1,48 @@
+package com.thotran.sochitieu.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.thotran.sochitieu.dto.request.PeriodGranularity;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO cho so sánh nhiều kỳ (tháng / quý / năm).
+ * Kỳ đầu tiên là mốc: chênh lệch và % thay đổi của mỗi kỳ được tính so với kỳ mốc.
+ */
+@Data
+@Builder
+public class PeriodComparisonResponse {
+    
+    private PeriodGranularity granularity;
+    private String baseline;            // Nhãn kỳ mốc
+    private List<PeriodStatistics> periods;
+    
+    /**
+     * Inner class cho số liệu của từng kỳ
+     */
+    @Data
+    @Builder
+    public static class PeriodStatistics {
+        private String period;          // "MM/yyyy", "Qn/yyyy" hoặc "yyyy"
+        private BigDecimal income;
+        private BigDecimal expense;
+        private BigDecimal balance;
+        private Long transactionCount;
+        
+        // Chênh lệch (kỳ này - kỳ mốc)
+        private BigDecimal incomeDiff;
+        private BigDecimal expenseDiff;
+        private BigDecimal balanceDiff;
+        
+        // % thay đổi so với kỳ mốc
+        private Double incomeChangePercent;
+        private Double expenseChangePercent;
+        
+        // Chi tiết theo danh mục, chỉ có khi gọi với breakdown=true
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<CategoryChartResponse> categories;
+    }
+}
@@ -2,6 +2,7 @@ package com.thotran.sochitieu.dto.response;
 
 import com.thotran.sochitieu.entity.RecurringFrequency;
 import com.thotran.sochitieu.entity.TransactionType;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -13,6 +14,7 @@ import java.time.LocalDate;
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class RecurringTransactionResponse {
     
     private Long id;
@@ -31,4 +33,16 @@ public class RecurringTransactionResponse {
     private String categoryName;
     private String categoryIcon;
     private String categoryColor;
+    
+    /**
+     * Constructor dùng cho JPQL constructor expression (projection).
+     * frequencyDisplay được suy ra từ frequency.
+     */
+    public RecurringTransactionResponse(Long id, BigDecimal amount, TransactionType type, String description,
+                                        RecurringFrequency frequency, LocalDate startDate, LocalDate endDate,
+                                        LocalDate nextDueDate, Boolean isActive, Long categoryId,
+                                        String categoryName, String categoryIcon, String categoryColor) {
+        this(id, amount, type, description, frequency, frequency.getDisplayName(), startDate, endDate,
+                nextDueDate, isActive, categoryId, categoryName, categoryIcon, categoryColor);
+    }
 }
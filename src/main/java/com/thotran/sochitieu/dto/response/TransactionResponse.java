@@ -1,6 +1,7 @@
 package com.thotran.sochitieu.dto.response;
 
 import com.thotran.sochitieu.entity.TransactionType;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,9 +10,11 @@ import java.time.LocalDate;
 
 /**
  * DTO trả về thông tin giao dịch.
+ * Constructor đầy đủ được dùng trực tiếp trong truy vấn projection (không cần load entity).
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class TransactionResponse {
     
     private Long id;
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 public class Budget {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "budget_seq")
+    @SequenceGenerator(name = "budget_seq", sequenceName = "budgets_seq", allocationSize = 50)
     private Long id;
     
     // Số tiền ngân sách đặt ra
@@ -50,6 +51,12 @@ public class Budget {
     @ToString.Exclude
     private User user;
     
+    // Ngưỡng cảnh báo (%) cao nhất đã gửi thông báo trong kỳ, 0/null = chưa cảnh báo.
+    // Chỉ được đổi bằng câu UPDATE riêng (BudgetRepository.compareAndSetAlertThreshold /
+    // resetAlertThreshold): không ghi theo entity để lưu budget không ghi đè ngưỡng vừa được đánh giá
+    @Column(name = "alert_threshold", updatable = false)
+    private Integer alertThreshold;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -66,4 +73,12 @@ public class Budget {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+    
+    public int getAlertThresholdOrZero() {
+        return alertThreshold != null ? alertThreshold : 0;
+    }
+    
+    public BudgetAlertState getAlertState() {
+        return BudgetAlertState.fromThreshold(getAlertThresholdOrZero());
+    }
 }
@@ -0,0 +1,17 @@
+package com.thotran.sochitieu.entity;
+
+/**
+ * Trạng thái cảnh báo của một ngân sách, suy ra từ ngưỡng cao nhất đã thông báo.
+ */
+public enum BudgetAlertState {
+    NONE,       // Chưa chạm ngưỡng cảnh báo nào
+    WARNED,     // Đã cảnh báo (chạm một ngưỡng < 100%)
+    EXCEEDED;   // Đã báo vượt ngân sách (ngưỡng >= 100%)
+    
+    public static BudgetAlertState fromThreshold(int thresholdPercent) {
+        if (thresholdPercent <= 0) {
+            return NONE;
+        }
+        return thresholdPercent >= 100 ? EXCEEDED : WARNED;
+    }
+}
@@ -0,0 +1,60 @@
+package com.thotran.sochitieu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng thu/chi của một danh mục trong một ngày, kèm tổng lũy kế (prefix sum)
+ * từ ngày đầu tiên đến hết ngày đó.
+ * 
+ * Tổng của khoảng [từ ngày, đến ngày] = lũy kế tại dòng cuối cùng <= đến ngày
+ * trừ lũy kế tại dòng cuối cùng < từ ngày, nên chi phí không phụ thuộc độ dài khoảng.
+ * Chỉ ngày có giao dịch mới có dòng; được cập nhật tăng dần cùng DB transaction với giao dịch.
+ */
+@Entity
+@Table(name = "category_daily_totals",
+       indexes = {
+               @Index(name = "idx_category_daily_totals_user_category_date",
+                      columnList = "user_id, category_id, bucket_date"),
+               @Index(name = "idx_category_daily_totals_user_date",
+                      columnList = "user_id, bucket_date")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryDailyTotal {
+    
+    @EmbeddedId
+    private CategoryDailyTotalId id;
+    
+    // Tổng thu / số giao dịch thu trong ngày
+    @Column(name = "income_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal incomeAmount;
+    
+    @Column(name = "income_count", nullable = false)
+    private Long incomeCount;
+    
+    // Tổng chi / số giao dịch chi trong ngày
+    @Column(name = "expense_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal expenseAmount;
+    
+    @Column(name = "expense_count", nullable = false)
+    private Long expenseCount;
+    
+    // Lũy kế thu từ đầu đến hết ngày này
+    @Column(name = "cumulative_income", nullable = false, precision = 19, scale = 2)
+    private BigDecimal cumulativeIncome;
+    
+    @Column(name = "cumulative_income_count", nullable = false)
+    private Long cumulativeIncomeCount;
+    
+    // Lũy kế chi từ đầu đến hết ngày này
+    @Column(name = "cumulative_expense", nullable = false, precision = 19, scale = 2)
+    private BigDecimal cumulativeExpense;
+    
+    @Column(name = "cumulative_expense_count", nullable = false)
+    private Long cumulativeExpenseCount;
+}
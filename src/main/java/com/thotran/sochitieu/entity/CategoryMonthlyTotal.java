@@ -0,0 +1,33 @@
+package com.thotran.sochitieu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tiền và số giao dịch của một danh mục trong một tháng.
+ * Được cập nhật tăng dần trong cùng DB transaction với mỗi lần tạo/sửa/xóa giao dịch,
+ * nên kiểm tra ngân sách chỉ cần đọc một dòng thay vì cộng lại cả tháng.
+ */
+@Entity
+@Table(name = "category_monthly_totals",
+       indexes = @Index(name = "idx_category_monthly_totals_user_period",
+                        columnList = "user_id, year, month"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryMonthlyTotal {
+    
+    @EmbeddedId
+    private CategoryMonthlyTotalId id;
+    
+    // Tổng số tiền các giao dịch trong tháng
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+    
+    // Số giao dịch trong tháng
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+}
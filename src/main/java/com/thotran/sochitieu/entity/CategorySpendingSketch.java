@@ -0,0 +1,36 @@
+package com.thotran.sochitieu.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Thống kê phân phối số tiền chi của một danh mục, cập nhật dần theo từng giao dịch (streaming):
+ * - t-digest (dạng nhị phân, vài KB) để ước lượng median / p90 / p99
+ * - trung bình và phương sai EWMA (trọng số giảm dần theo thời gian) để phát hiện giao dịch bất thường
+ * Không cần đọc lại lịch sử giao dịch khi cập nhật hay khi truy vấn.
+ */
+@Entity
+@Table(name = "category_spending_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySpendingSketch {
+    
+    @EmbeddedId
+    private CategorySpendingSketchId id;
+    
+    // Số giao dịch đã đưa vào thống kê
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+    
+    @Column(name = "ewma_mean", nullable = false)
+    private Double ewmaMean;
+    
+    @Column(name = "ewma_variance", nullable = false)
+    private Double ewmaVariance;
+    
+    // TDigest.toBytes()
+    @Column(nullable = false, length = 8192)
+    private byte[] digest;
+}
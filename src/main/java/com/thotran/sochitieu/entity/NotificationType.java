@@ -8,9 +8,12 @@ public enum NotificationType {
     WELCOME,                    // Chào mừng user mới
     
     // === Thông báo ngân sách ===
-    BUDGET_WARNING,             // Cảnh báo sắp vượt ngân sách (>80%)
+    BUDGET_WARNING,             // Cảnh báo sắp vượt ngân sách (chạm ngưỡng app.budget.alert-thresholds)
     BUDGET_EXCEEDED,            // Đã vượt ngân sách
     
+    // === Thông báo chi tiêu ===
+    SPENDING_ANOMALY,           // Giao dịch chi cao bất thường so với thói quen của danh mục
+    
     // === Thông báo recurring ===
     RECURRING_DUE,              // Giao dịch định kỳ đến hạn
     RECURRING_PROCESSED,        // Giao dịch định kỳ đã được xử lý
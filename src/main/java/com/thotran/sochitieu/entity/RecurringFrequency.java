@@ -4,8 +4,21 @@ package com.thotran.sochitieu.entity;
  * Enum định nghĩa tần suất lặp lại của giao dịch.
  */
 public enum RecurringFrequency {
-    DAILY,      // Hàng ngày
-    WEEKLY,     // Hàng tuần
-    MONTHLY,    // Hàng tháng
-    YEARLY      // Hàng năm
+    DAILY("Hàng ngày"),         // Hàng ngày
+    WEEKLY("Hàng tuần"),        // Hàng tuần
+    MONTHLY("Hàng tháng"),      // Hàng tháng
+    YEARLY("Hàng năm");         // Hàng năm
+    
+    private final String displayName;
+    
+    RecurringFrequency(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    /**
+     * Tên hiển thị cho UI (VD: "Hàng tháng")
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
 }
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class RecurringTransaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recurring_transaction_seq")
+    @SequenceGenerator(name = "recurring_transaction_seq", sequenceName = "recurring_transactions_seq", allocationSize = 50)
     private Long id;
     
     // Số tiền mỗi lần
@@ -93,11 +94,19 @@ public class RecurringTransaction {
      * Tính ngày đến hạn tiếp theo dựa trên frequency
      */
     public LocalDate calculateNextDueDate() {
+        return calculateNextDueDate(nextDueDate);
+    }
+    
+    /**
+     * Ngày đến hạn kế tiếp sau một lần đến hạn bất kỳ (không thay đổi entity),
+     * dùng để dự báo các lần đến hạn sắp tới
+     */
+    public LocalDate calculateNextDueDate(LocalDate dueDate) {
         return switch (frequency) {
-            case DAILY -> nextDueDate.plusDays(1);
-            case WEEKLY -> nextDueDate.plusWeeks(1);
-            case MONTHLY -> nextDueDate.plusMonths(1);
-            case YEARLY -> nextDueDate.plusYears(1);
+            case DAILY -> dueDate.plusDays(1);
+            case WEEKLY -> dueDate.plusWeeks(1);
+            case MONTHLY -> dueDate.plusMonths(1);
+            case YEARLY -> dueDate.plusYears(1);
         };
     }
 }
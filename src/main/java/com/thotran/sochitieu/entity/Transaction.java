@@ -12,7 +12,16 @@ import java.time.LocalDateTime;
  * Mỗi giao dịch thuộc về một User và một Category.
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+       // Index phục vụ tìm kiếm + phân trang keyset theo (user, ngày, id)
+       indexes = {
+           @Index(name = "idx_transactions_user_date_id",
+                  columnList = "user_id, transaction_date, id"),
+           @Index(name = "idx_transactions_user_category_date",
+                  columnList = "user_id, category_id, transaction_date"),
+           @Index(name = "idx_transactions_user_type_date",
+                  columnList = "user_id, type, transaction_date")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +29,10 @@ import java.time.LocalDateTime;
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence (MySQL: bảng mô phỏng sequence) cấp ID theo khối 50 giá trị,
+    // để Hibernate có thể gom INSERT thành lô (IDENTITY sẽ tắt JDBC batching)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     // Số tiền giao dịch (sử dụng BigDecimal để tính toán chính xác)
@@ -0,0 +1,12 @@
+package com.thotran.sochitieu.event;
+
+import java.time.YearMonth;
+
+/**
+ * Sự kiện phát ra khi ngân sách được tạo hoặc đổi hạn mức / kỳ / danh mục (listener AFTER_COMMIT).
+ * 
+ * Ngân sách của (danh mục, tháng) được đánh giá lại ngay với số đã chi hiện tại,
+ * không phải chờ giao dịch chi tiếp theo.
+ */
+public record BudgetChangedEvent(Long userId, Long categoryId, YearMonth period) {
+}
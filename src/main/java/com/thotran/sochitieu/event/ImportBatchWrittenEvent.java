@@ -0,0 +1,22 @@
+package com.thotran.sochitieu.event;
+
+import java.util.List;
+
+/**
+ * Một lô giao dịch vừa được ghi trong lúc import.
+ * 
+ * Chỉ dành cho listener đồng bộ (bảng tổng hợp cập nhật theo từng lô, cùng DB transaction).
+ * Không phải TransactionChangedEvent nên không có listener AFTER_COMMIT nào giữ lại các lô
+ * tới lúc commit: việc sau commit dùng một TransactionsImportedEvent gọn ở cuối lần import.
+ */
+public record ImportBatchWrittenEvent(Long userId, List<TransactionSnapshot> added) implements TransactionChanges {
+    
+    public ImportBatchWrittenEvent {
+        added = List.copyOf(added);
+    }
+    
+    @Override
+    public List<TransactionSnapshot> removed() {
+        return List.of();
+    }
+}
@@ -0,0 +1,36 @@
+package com.thotran.sochitieu.event;
+
+import com.thotran.sochitieu.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * Sự kiện phát ra khi giao dịch của một user được tạo, sửa hoặc xóa.
+ * 
+ * removed: trạng thái cũ cần trừ đi (xóa, hoặc bản trước khi sửa)
+ * added: trạng thái mới cần cộng vào (tạo, hoặc bản sau khi sửa)
+ * 
+ * Listener đồng bộ (@EventListener) chạy trong cùng DB transaction với thay đổi.
+ */
+public record TransactionChangedEvent(Long userId, List<TransactionSnapshot> removed,
+                                      List<TransactionSnapshot> added) implements TransactionChanges {
+    
+    public static TransactionChangedEvent created(Transaction transaction) {
+        return new TransactionChangedEvent(transaction.getUser().getId(),
+                List.of(), List.of(TransactionSnapshot.of(transaction)));
+    }
+    
+    public static TransactionChangedEvent created(Long userId, List<TransactionSnapshot> snapshots) {
+        return new TransactionChangedEvent(userId, List.of(), List.copyOf(snapshots));
+    }
+    
+    public static TransactionChangedEvent updated(TransactionSnapshot before, Transaction after) {
+        return new TransactionChangedEvent(before.userId(),
+                List.of(before), List.of(TransactionSnapshot.of(after)));
+    }
+    
+    public static TransactionChangedEvent deleted(Transaction transaction) {
+        return new TransactionChangedEvent(transaction.getUser().getId(),
+                List.of(TransactionSnapshot.of(transaction)), List.of());
+    }
+}
@@ -0,0 +1,18 @@
+package com.thotran.sochitieu.event;
+
+import java.util.List;
+
+/**
+ * Một tập thay đổi giao dịch của user: removed cần trừ đi, added cần cộng vào.
+ * 
+ * Listener đồng bộ cập nhật bảng tổng hợp nhận kiểu này để xử lý cả TransactionChangedEvent
+ * lẫn từng lô của một lần import (ImportBatchWrittenEvent).
+ */
+public interface TransactionChanges {
+    
+    Long userId();
+    
+    List<TransactionSnapshot> removed();
+    
+    List<TransactionSnapshot> added();
+}
@@ -0,0 +1,25 @@
+package com.thotran.sochitieu.event;
+
+import com.thotran.sochitieu.entity.Transaction;
+import com.thotran.sochitieu.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Các trường của giao dịch ảnh hưởng tới số liệu tổng hợp, chụp tại một thời điểm
+ * (trước hoặc sau khi thay đổi).
+ */
+public record TransactionSnapshot(Long transactionId, Long userId, Long categoryId, TransactionType type,
+                                  LocalDate transactionDate, BigDecimal amount) {
+    
+    public static TransactionSnapshot of(Transaction transaction) {
+        return new TransactionSnapshot(
+                transaction.getId(),
+                transaction.getUser().getId(),
+                transaction.getCategory().getId(),
+                transaction.getType(),
+                transaction.getTransactionDate(),
+                transaction.getAmount());
+    }
+}
@@ -0,0 +1,23 @@
+package com.thotran.sochitieu.event;
+
+import java.time.YearMonth;
+import java.util.Set;
+
+/**
+ * Sự kiện phát ra một lần khi import xong (listener AFTER_COMMIT).
+ * 
+ * Chỉ mang các (danh mục, tháng) có giao dịch chi được import (đã loại trùng) thay vì
+ * toàn bộ giao dịch, nên bộ nhớ không tăng theo số dòng của file.
+ */
+public record TransactionsImportedEvent(Long userId, Set<ExpensePeriod> expensePeriods) {
+    
+    public TransactionsImportedEvent {
+        expensePeriods = Set.copyOf(expensePeriods);
+    }
+    
+    /**
+     * Một (danh mục, tháng) có chi tiêu thay đổi
+     */
+    public record ExpensePeriod(Long categoryId, YearMonth period) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.thotran.sochitieu.event;
+
+/**
+ * Sự kiện phát ra khi dữ liệu (không phải giao dịch) của user thay đổi: danh mục, ngân sách.
+ * 
+ * Giao dịch đã có TransactionChangedEvent riêng; sự kiện này chỉ báo "dữ liệu của user đã đổi"
+ * để các số liệu dẫn xuất (cache thống kê) được làm mới.
+ */
+public record UserDataChangedEvent(Long userId) {
+}
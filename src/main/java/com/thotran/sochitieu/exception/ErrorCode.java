@@ -21,6 +21,7 @@ public enum ErrorCode {
     // === Lỗi liên quan đến Transaction ===
     TRANSACTION_NOT_FOUND(404, "Không tìm thấy giao dịch"),
     INVALID_AMOUNT(400, "Số tiền phải lớn hơn 0"),
+    INVALID_CURSOR(400, "Cursor phân trang không hợp lệ"),
     
     // === Lỗi liên quan đến Budget ===
     BUDGET_NOT_FOUND(404, "Không tìm thấy ngân sách"),
@@ -0,0 +1,12 @@
+package com.thotran.sochitieu.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Kết quả truy vấn tổng hợp: các nhóm được trả về (đã giới hạn số dòng)
+ * và tổng của toàn bộ các nhóm (kể cả các nhóm bị cắt bớt).
+ */
+public record AggregationResult(List<AggregationRow> rows, BigDecimal totalAmount,
+                                long totalCount, long groupCount) {
+}
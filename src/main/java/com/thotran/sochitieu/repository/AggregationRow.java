@@ -0,0 +1,10 @@
+package com.thotran.sochitieu.repository;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Một nhóm kết quả của truy vấn tổng hợp: giá trị các chiều nhóm, tổng tiền và số giao dịch.
+ */
+public record AggregationRow(Map<String, Object> group, BigDecimal amount, long count) {
+}
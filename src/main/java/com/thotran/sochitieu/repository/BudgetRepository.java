@@ -1,7 +1,11 @@
 package com.thotran.sochitieu.repository;
 
+import com.thotran.sochitieu.dto.response.BudgetResponse;
 import com.thotran.sochitieu.entity.Budget;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,8 +18,33 @@ import java.util.Optional;
 @Repository
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     
-    // Lấy tất cả budget của user trong một tháng/năm
-    List<Budget> findByUserIdAndMonthAndYear(Long userId, Integer month, Integer year);
+    // Budget + danh mục + tổng đã chi (từ bảng tổng hợp theo tháng) trong một câu GROUP BY
+    String RESPONSE_SELECT = "SELECT new com.thotran.sochitieu.dto.response.BudgetResponse(" +
+            "b.id, b.amount, b.month, b.year, c.id, c.name, c.icon, c.color, " +
+            "COALESCE(SUM(t.totalAmount), 0)) " +
+            "FROM Budget b JOIN b.category c " +
+            "LEFT JOIN CategoryMonthlyTotal t ON t.id.userId = b.user.id " +
+            "AND t.id.categoryId = c.id AND t.id.year = b.year AND t.id.month = b.month ";
+    
+    String RESPONSE_GROUP_BY = "GROUP BY b.id, b.amount, b.month, b.year, c.id, c.name, c.icon, c.color ";
+    
+    // Tổng quan ngân sách của user trong một tháng/năm
+    @Query(RESPONSE_SELECT +
+           "WHERE b.user.id = :userId AND b.month = :month AND b.year = :year " +
+           RESPONSE_GROUP_BY +
+           "ORDER BY b.id")
+    List<BudgetResponse> findResponsesByUserIdAndMonthAndYear(
+            @Param("userId") Long userId,
+            @Param("month") Integer month,
+            @Param("year") Integer year);
+    
+    // Tổng quan một budget theo ID và user ID
+    @Query(RESPONSE_SELECT +
+           "WHERE b.id = :id AND b.user.id = :userId " +
+           RESPONSE_GROUP_BY)
+    Optional<BudgetResponse> findResponseByIdAndUserId(
+            @Param("id") Long id,
+            @Param("userId") Long userId);
     
     // Lấy budget theo category, tháng, năm (để kiểm tra trùng lặp)
     Optional<Budget> findByUserIdAndCategoryIdAndMonthAndYear(
@@ -24,6 +53,21 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     // Tìm budget theo ID và user ID
     Optional<Budget> findByIdAndUserId(Long id, Long userId);
     
+    // Chuyển trạng thái cảnh báo nếu trạng thái hiện tại vẫn là expected (compare-and-set).
+    // Trả về 1 nếu chuyển thành công, 0 nếu đã có luồng khác chuyển trước
+    @Modifying
+    @Query("UPDATE Budget b SET b.alertThreshold = :next " +
+           "WHERE b.id = :id AND COALESCE(b.alertThreshold, 0) = :expected")
+    int compareAndSetAlertThreshold(
+            @Param("id") Long id,
+            @Param("expected") int expected,
+            @Param("next") int next);
+    
+    // Mở lại mọi ngưỡng cảnh báo (đổi hạn mức / kỳ / danh mục của budget)
+    @Modifying
+    @Query("UPDATE Budget b SET b.alertThreshold = 0 WHERE b.id = :id")
+    int resetAlertThreshold(@Param("id") Long id);
+    
     // Kiểm tra budget đã tồn tại chưa
     boolean existsByUserIdAndCategoryIdAndMonthAndYear(
             Long userId, Long categoryId, Integer month, Integer year);
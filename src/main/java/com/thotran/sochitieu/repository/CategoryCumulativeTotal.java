@@ -0,0 +1,13 @@
+package com.thotran.sochitieu.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng lũy kế thu/chi của một danh mục tính đến một ngày,
+ * kèm thông tin hiển thị của danh mục (projection từ bảng tổng hợp theo ngày).
+ */
+public record CategoryCumulativeTotal(Long categoryId, String categoryName,
+                                      String categoryIcon, String categoryColor,
+                                      BigDecimal income, Long incomeCount,
+                                      BigDecimal expense, Long expenseCount) {
+}
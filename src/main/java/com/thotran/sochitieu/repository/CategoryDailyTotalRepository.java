@@ -0,0 +1,71 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategoryDailyTotal;
+import com.thotran.sochitieu.entity.CategoryDailyTotalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository cho bảng tổng hợp giao dịch theo (user, danh mục, ngày) có tổng lũy kế.
+ */
+@Repository
+public interface CategoryDailyTotalRepository extends JpaRepository<CategoryDailyTotal, CategoryDailyTotalId>,
+        CategoryDailyTotalRepositoryCustom {
+    
+    // Lũy kế của từng danh mục tính đến hết ngày date: mỗi danh mục một lần tìm theo index (dòng cuối <= date)
+    @Query("SELECT new com.thotran.sochitieu.repository.CategoryCumulativeTotal(" +
+           "c.id, c.name, c.icon, c.color, " +
+           "d.cumulativeIncome, d.cumulativeIncomeCount, d.cumulativeExpense, d.cumulativeExpenseCount) " +
+           "FROM Category c JOIN CategoryDailyTotal d " +
+           "ON d.id.userId = :userId AND d.id.categoryId = c.id " +
+           "WHERE c.user.id = :userId " +
+           "AND d.id.bucketDate = (SELECT MAX(d2.id.bucketDate) FROM CategoryDailyTotal d2 " +
+           "WHERE d2.id.userId = :userId AND d2.id.categoryId = c.id AND d2.id.bucketDate <= :date)")
+    List<CategoryCumulativeTotal> findCumulativeTotalsAt(
+            @Param("userId") Long userId,
+            @Param("date") LocalDate date);
+    
+    // Tổng thu/chi theo ngày (mọi danh mục) trong [startDate, endDate] - chỉ các ngày có giao dịch
+    @Query("SELECT new com.thotran.sochitieu.repository.DailyTotal(" +
+           "d.id.bucketDate, SUM(d.incomeAmount), SUM(d.expenseAmount), SUM(d.incomeCount + d.expenseCount)) " +
+           "FROM CategoryDailyTotal d " +
+           "WHERE d.id.userId = :userId " +
+           "AND d.id.bucketDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY d.id.bucketDate")
+    List<DailyTotal> sumByDayBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+    
+    // Xóa số liệu của danh mục (giao dịch của danh mục bị xóa theo cascade)
+    @Modifying
+    @Query("DELETE FROM CategoryDailyTotal d WHERE d.id.categoryId = :categoryId")
+    void deleteByCategoryId(@Param("categoryId") Long categoryId);
+    
+    // Dựng lại toàn bộ bảng từ bảng transactions, lũy kế tính bằng window function (bảng phải đang rỗng)
+    @Modifying
+    @Query(value = "INSERT INTO category_daily_totals " +
+                   "(user_id, category_id, bucket_date, income_amount, income_count, " +
+                   "expense_amount, expense_count, cumulative_income, cumulative_income_count, " +
+                   "cumulative_expense, cumulative_expense_count) " +
+                   "SELECT user_id, category_id, transaction_date, income_amount, income_count, " +
+                   "expense_amount, expense_count, " +
+                   "SUM(income_amount) OVER w, SUM(income_count) OVER w, " +
+                   "SUM(expense_amount) OVER w, SUM(expense_count) OVER w " +
+                   "FROM (SELECT user_id, category_id, transaction_date, " +
+                   "SUM(CASE WHEN type = 'INCOME' THEN amount ELSE 0 END) AS income_amount, " +
+                   "SUM(CASE WHEN type = 'INCOME' THEN 1 ELSE 0 END) AS income_count, " +
+                   "SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END) AS expense_amount, " +
+                   "SUM(CASE WHEN type = 'EXPENSE' THEN 1 ELSE 0 END) AS expense_count " +
+                   "FROM transactions " +
+                   "GROUP BY user_id, category_id, transaction_date) daily " +
+                   "WINDOW w AS (PARTITION BY user_id, category_id ORDER BY transaction_date)",
+           nativeQuery = true)
+    int rebuildFromTransactions();
+}
@@ -0,0 +1,18 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategoryDailyTotalId;
+
+import java.math.BigDecimal;
+
+/**
+ * Các thao tác ghi tùy biến cho bảng tổng hợp theo ngày (SQL riêng theo dialect).
+ */
+public interface CategoryDailyTotalRepositoryCustom {
+    
+    /**
+     * Cộng dồn thay đổi của một ngày vào dòng của ngày đó (tạo mới nếu chưa có)
+     * và vào tổng lũy kế của mọi ngày sau đó.
+     */
+    void applyDelta(CategoryDailyTotalId id, BigDecimal incomeDelta, long incomeCountDelta,
+                    BigDecimal expenseDelta, long expenseCountDelta);
+}
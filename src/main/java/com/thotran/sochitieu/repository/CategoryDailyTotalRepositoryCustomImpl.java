@@ -0,0 +1,195 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategoryDailyTotalId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation của CategoryDailyTotalRepositoryCustom.
+ * 
+ * Một thay đổi tại ngày D:
+ * 1. Cộng vào lũy kế của các ngày sau D (một câu UPDATE theo index (user, danh mục, ngày))
+ * 2. Upsert dòng ngày D: dòng mới lấy lũy kế của ngày gần nhất trước D làm gốc,
+ *    dòng đã có chỉ cần cộng thêm.
+ * MySQL: INSERT ... ON DUPLICATE KEY UPDATE, PostgreSQL: INSERT ... ON CONFLICT DO UPDATE.
+ * 
+ * Bước 2 đọc rồi mới ghi: hai transaction cùng tạo dòng ngày mới của một (user, danh mục) có thể
+ * cùng lấy gốc lũy kế cũ và bỏ sót thay đổi của nhau, làm sai lũy kế vĩnh viễn. Vì vậy mọi thay đổi
+ * của một (user, danh mục) được tuần tự hóa bằng khóa tới hết transaction, lấy trước bước 1:
+ * PostgreSQL: pg_advisory_xact_lock, MySQL: GET_LOCK (nhả khi transaction kết thúc).
+ * Không khóa dòng categories: giao dịch vừa ghi đã giữ khóa chia sẻ của khóa ngoại trên dòng đó,
+ * nâng lên khóa ghi sẽ deadlock giữa hai transaction cùng danh mục (MySQL).
+ */
+public class CategoryDailyTotalRepositoryCustomImpl implements CategoryDailyTotalRepositoryCustom {
+    
+    private static final String POSTGRES_LOCK = "SELECT 1 FROM pg_advisory_xact_lock(?1, ?2)";
+    
+    private static final String MYSQL_LOCK = "SELECT GET_LOCK(?1, ?2)";
+    
+    private static final String MYSQL_UNLOCK = "SELECT RELEASE_ALL_LOCKS()";
+    
+    // Thời gian chờ tối đa khóa GET_LOCK (giây), tương đương innodb_lock_wait_timeout mặc định
+    private static final int MYSQL_LOCK_TIMEOUT_SECONDS = 50;
+    
+    // Tên các khóa GET_LOCK đang giữ trong transaction hiện tại (resource của transaction)
+    private static final Object HELD_LOCKS_KEY = new Object();
+    
+    private static final String UPDATE_LATER_DAYS =
+            "UPDATE category_daily_totals SET " +
+            "cumulative_income = cumulative_income + ?1, " +
+            "cumulative_income_count = cumulative_income_count + ?2, " +
+            "cumulative_expense = cumulative_expense + ?3, " +
+            "cumulative_expense_count = cumulative_expense_count + ?4 " +
+            "WHERE user_id = ?5 AND category_id = ?6 AND bucket_date > ?7";
+    
+    private static final String SELECT_PREVIOUS_DAY =
+            "SELECT cumulative_income, cumulative_income_count, cumulative_expense, cumulative_expense_count " +
+            "FROM category_daily_totals " +
+            "WHERE user_id = ?1 AND category_id = ?2 AND bucket_date < ?3 " +
+            "ORDER BY bucket_date DESC LIMIT 1";
+    
+    private static final String INSERT =
+            "INSERT INTO category_daily_totals " +
+            "(user_id, category_id, bucket_date, income_amount, income_count, expense_amount, expense_count, " +
+            "cumulative_income, cumulative_income_count, cumulative_expense, cumulative_expense_count) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10, ?11) ";
+    
+    private static final String MYSQL_UPSERT = INSERT +
+            "ON DUPLICATE KEY UPDATE " +
+            "income_amount = income_amount + VALUES(income_amount), " +
+            "income_count = income_count + VALUES(income_count), " +
+            "expense_amount = expense_amount + VALUES(expense_amount), " +
+            "expense_count = expense_count + VALUES(expense_count), " +
+            "cumulative_income = cumulative_income + VALUES(income_amount), " +
+            "cumulative_income_count = cumulative_income_count + VALUES(income_count), " +
+            "cumulative_expense = cumulative_expense + VALUES(expense_amount), " +
+            "cumulative_expense_count = cumulative_expense_count + VALUES(expense_count)";
+    
+    private static final String POSTGRES_UPSERT = INSERT +
+            "ON CONFLICT (user_id, category_id, bucket_date) DO UPDATE SET " +
+            "income_amount = category_daily_totals.income_amount + EXCLUDED.income_amount, " +
+            "income_count = category_daily_totals.income_count + EXCLUDED.income_count, " +
+            "expense_amount = category_daily_totals.expense_amount + EXCLUDED.expense_amount, " +
+            "expense_count = category_daily_totals.expense_count + EXCLUDED.expense_count, " +
+            "cumulative_income = category_daily_totals.cumulative_income + EXCLUDED.income_amount, " +
+            "cumulative_income_count = category_daily_totals.cumulative_income_count + EXCLUDED.income_count, " +
+            "cumulative_expense = category_daily_totals.cumulative_expense + EXCLUDED.expense_amount, " +
+            "cumulative_expense_count = category_daily_totals.cumulative_expense_count + EXCLUDED.expense_count";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile Boolean postgres;
+    
+    @Override
+    public void applyDelta(CategoryDailyTotalId id, BigDecimal incomeDelta, long incomeCountDelta,
+                           BigDecimal expenseDelta, long expenseCountDelta) {
+        lockCategory(id.getUserId(), id.getCategoryId());
+        
+        entityManager.createNativeQuery(UPDATE_LATER_DAYS)
+                .setParameter(1, incomeDelta)
+                .setParameter(2, incomeCountDelta)
+                .setParameter(3, expenseDelta)
+                .setParameter(4, expenseCountDelta)
+                .setParameter(5, id.getUserId())
+                .setParameter(6, id.getCategoryId())
+                .setParameter(7, id.getBucketDate())
+                .executeUpdate();
+        
+        // Lũy kế của ngày gần nhất trước D (0 nếu D là ngày đầu tiên)
+        BigDecimal previousIncome = BigDecimal.ZERO;
+        long previousIncomeCount = 0;
+        BigDecimal previousExpense = BigDecimal.ZERO;
+        long previousExpenseCount = 0;
+        
+        @SuppressWarnings("unchecked")
+        List<Object[]> previous = entityManager.createNativeQuery(SELECT_PREVIOUS_DAY)
+                .setParameter(1, id.getUserId())
+                .setParameter(2, id.getCategoryId())
+                .setParameter(3, id.getBucketDate())
+                .getResultList();
+        if (!previous.isEmpty()) {
+            Object[] row = previous.get(0);
+            previousIncome = (BigDecimal) row[0];
+            previousIncomeCount = ((Number) row[1]).longValue();
+            previousExpense = (BigDecimal) row[2];
+            previousExpenseCount = ((Number) row[3]).longValue();
+        }
+        
+        entityManager.createNativeQuery(isPostgres() ? POSTGRES_UPSERT : MYSQL_UPSERT)
+                .setParameter(1, id.getUserId())
+                .setParameter(2, id.getCategoryId())
+                .setParameter(3, id.getBucketDate())
+                .setParameter(4, incomeDelta)
+                .setParameter(5, incomeCountDelta)
+                .setParameter(6, expenseDelta)
+                .setParameter(7, expenseCountDelta)
+                .setParameter(8, previousIncome.add(incomeDelta))
+                .setParameter(9, previousIncomeCount + incomeCountDelta)
+                .setParameter(10, previousExpense.add(expenseDelta))
+                .setParameter(11, previousExpenseCount + expenseCountDelta)
+                .executeUpdate();
+    }
+    
+    /**
+     * Khóa (user, danh mục) tới hết transaction hiện tại
+     */
+    private void lockCategory(Long userId, Long categoryId) {
+        if (isPostgres()) {
+            // Trùng hash chỉ làm tuần tự hóa thêm, không sai kết quả
+            entityManager.createNativeQuery(POSTGRES_LOCK)
+                    .setParameter(1, Long.hashCode(userId))
+                    .setParameter(2, Long.hashCode(categoryId))
+                    .getSingleResult();
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Set<String> held = (Set<String>) TransactionSynchronizationManager.getResource(HELD_LOCKS_KEY);
+        if (held == null) {
+            held = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(HELD_LOCKS_KEY, held);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Cùng kết nối: kết nối chỉ được trả về pool sau bước này
+                    TransactionSynchronizationManager.unbindResource(HELD_LOCKS_KEY);
+                    entityManager.createNativeQuery(MYSQL_UNLOCK).getSingleResult();
+                }
+            });
+        }
+        
+        String name = "category_daily_totals:" + userId + ":" + categoryId;
+        if (held.contains(name)) {
+            return;
+        }
+        Object acquired = entityManager.createNativeQuery(MYSQL_LOCK)
+                .setParameter(1, name)
+                .setParameter(2, MYSQL_LOCK_TIMEOUT_SECONDS)
+                .getSingleResult();
+        if (acquired == null || ((Number) acquired).intValue() != 1) {
+            throw new CannotAcquireLockException("Timed out waiting for lock " + name);
+        }
+        held.add(name);
+    }
+    
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
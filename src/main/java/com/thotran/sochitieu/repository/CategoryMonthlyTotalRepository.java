@@ -0,0 +1,85 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategoryMonthlyTotal;
+import com.thotran.sochitieu.entity.CategoryMonthlyTotalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository cho bảng tổng hợp giao dịch theo (user, danh mục, tháng, loại).
+ */
+@Repository
+public interface CategoryMonthlyTotalRepository extends JpaRepository<CategoryMonthlyTotal, CategoryMonthlyTotalId>,
+        CategoryMonthlyTotalRepositoryCustom {
+    
+    // Tổng tiền của danh mục trong tháng (đọc trực tiếp từ bảng tổng hợp)
+    @Query("SELECT COALESCE(SUM(c.totalAmount), 0) FROM CategoryMonthlyTotal c " +
+           "WHERE c.id.userId = :userId " +
+           "AND c.id.categoryId = :categoryId " +
+           "AND c.id.year = :year " +
+           "AND c.id.month = :month")
+    BigDecimal sumAmountByCategoryAndMonth(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("year") int year,
+            @Param("month") int month);
+    
+    // Tổng theo (loại, danh mục) trong các tháng [fromPeriod, toPeriod], period = year * 100 + month
+    @Query("SELECT new com.thotran.sochitieu.repository.CategoryTypeTotal(" +
+           "m.id.type, c.id, c.name, c.icon, c.color, SUM(m.totalAmount), SUM(m.transactionCount)) " +
+           "FROM CategoryMonthlyTotal m JOIN Category c ON c.id = m.id.categoryId " +
+           "WHERE m.id.userId = :userId " +
+           "AND m.id.year * 100 + m.id.month BETWEEN :fromPeriod AND :toPeriod " +
+           "GROUP BY m.id.type, c.id, c.name, c.icon, c.color")
+    List<CategoryTypeTotal> sumByTypeAndCategoryBetweenPeriods(
+            @Param("userId") Long userId,
+            @Param("fromPeriod") int fromPeriod,
+            @Param("toPeriod") int toPeriod);
+    
+    // Tổng theo (năm, tháng, loại) trong các tháng [fromPeriod, toPeriod] - dùng cho xu hướng theo tháng
+    @Query("SELECT new com.thotran.sochitieu.repository.MonthlyTypeTotal(" +
+           "m.id.year, m.id.month, m.id.type, SUM(m.totalAmount)) " +
+           "FROM CategoryMonthlyTotal m " +
+           "WHERE m.id.userId = :userId " +
+           "AND m.id.year * 100 + m.id.month BETWEEN :fromPeriod AND :toPeriod " +
+           "GROUP BY m.id.year, m.id.month, m.id.type")
+    List<MonthlyTypeTotal> sumByMonthAndTypeBetweenPeriods(
+            @Param("userId") Long userId,
+            @Param("fromPeriod") int fromPeriod,
+            @Param("toPeriod") int toPeriod);
+    
+    // Các dòng tổng hợp (kèm thông tin danh mục) của các tháng trong danh sách, period = year * 100 + month
+    @Query("SELECT new com.thotran.sochitieu.repository.MonthlyCategoryTypeTotal(" +
+           "m.id.year, m.id.month, m.id.type, c.id, c.name, c.icon, c.color, m.totalAmount, m.transactionCount) " +
+           "FROM CategoryMonthlyTotal m JOIN Category c ON c.id = m.id.categoryId " +
+           "WHERE m.id.userId = :userId " +
+           "AND m.id.year * 100 + m.id.month IN :periods")
+    List<MonthlyCategoryTypeTotal> findByMonthPeriods(
+            @Param("userId") Long userId,
+            @Param("periods") Collection<Integer> periods);
+    
+    // Xóa số liệu của danh mục (giao dịch của danh mục bị xóa theo cascade)
+    @Modifying
+    @Query("DELETE FROM CategoryMonthlyTotal c WHERE c.id.categoryId = :categoryId")
+    void deleteByCategoryId(@Param("categoryId") Long categoryId);
+    
+    // Dựng lại toàn bộ bảng tổng hợp từ bảng transactions (bảng tổng hợp phải đang rỗng)
+    @Modifying
+    @Query(value = "INSERT INTO category_monthly_totals " +
+                   "(user_id, category_id, year, month, type, total_amount, transaction_count) " +
+                   "SELECT user_id, category_id, " +
+                   "EXTRACT(YEAR FROM transaction_date), EXTRACT(MONTH FROM transaction_date), " +
+                   "type, SUM(amount), COUNT(*) " +
+                   "FROM transactions " +
+                   "GROUP BY user_id, category_id, " +
+                   "EXTRACT(YEAR FROM transaction_date), EXTRACT(MONTH FROM transaction_date), type",
+           nativeQuery = true)
+    int rebuildFromTransactions();
+}
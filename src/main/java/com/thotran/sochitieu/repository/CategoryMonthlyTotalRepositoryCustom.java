@@ -0,0 +1,17 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategoryMonthlyTotalId;
+
+import java.math.BigDecimal;
+
+/**
+ * Các thao tác ghi tùy biến cho bảng tổng hợp theo tháng (SQL riêng theo dialect).
+ */
+public interface CategoryMonthlyTotalRepositoryCustom {
+    
+    /**
+     * Cộng dồn (atomic) vào dòng tổng hợp, tạo dòng mới nếu chưa có.
+     * Dùng upsert của database nên an toàn khi nhiều giao dịch cùng cập nhật một dòng.
+     */
+    void applyDelta(CategoryMonthlyTotalId id, BigDecimal amountDelta, long countDelta);
+}
@@ -0,0 +1,60 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategoryMonthlyTotalId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+
+/**
+ * Implementation của CategoryMonthlyTotalRepositoryCustom.
+ * MySQL: INSERT ... ON DUPLICATE KEY UPDATE, PostgreSQL: INSERT ... ON CONFLICT DO UPDATE.
+ */
+public class CategoryMonthlyTotalRepositoryCustomImpl implements CategoryMonthlyTotalRepositoryCustom {
+    
+    private static final String INSERT =
+            "INSERT INTO category_monthly_totals " +
+            "(user_id, category_id, year, month, type, total_amount, transaction_count) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7) ";
+    
+    private static final String MYSQL_UPSERT = INSERT +
+            "ON DUPLICATE KEY UPDATE " +
+            "total_amount = total_amount + VALUES(total_amount), " +
+            "transaction_count = transaction_count + VALUES(transaction_count)";
+    
+    private static final String POSTGRES_UPSERT = INSERT +
+            "ON CONFLICT (user_id, category_id, year, month, type) DO UPDATE SET " +
+            "total_amount = category_monthly_totals.total_amount + EXCLUDED.total_amount, " +
+            "transaction_count = category_monthly_totals.transaction_count + EXCLUDED.transaction_count";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile String upsertSql;
+    
+    @Override
+    public void applyDelta(CategoryMonthlyTotalId id, BigDecimal amountDelta, long countDelta) {
+        entityManager.createNativeQuery(upsertSql())
+                .setParameter(1, id.getUserId())
+                .setParameter(2, id.getCategoryId())
+                .setParameter(3, id.getYear())
+                .setParameter(4, id.getMonth())
+                .setParameter(5, id.getType().name())
+                .setParameter(6, amountDelta)
+                .setParameter(7, countDelta)
+                .executeUpdate();
+    }
+    
+    private String upsertSql() {
+        if (upsertSql == null) {
+            boolean postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+            upsertSql = postgres ? POSTGRES_UPSERT : MYSQL_UPSERT;
+        }
+        return upsertSql;
+    }
+}
@@ -5,6 +5,7 @@ import com.thotran.sochitieu.entity.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Tìm danh mục theo ID và user ID (đảm bảo user chỉ truy cập danh mục của mình)
     Optional<Category> findByIdAndUserId(Long id, Long userId);
     
+    // Lấy nhiều danh mục của user theo danh sách ID (dùng khi tạo giao dịch hàng loạt)
+    List<Category> findByIdInAndUserId(Collection<Long> ids, Long userId);
+    
     // Kiểm tra tên danh mục đã tồn tại cho user chưa
     boolean existsByNameAndUserId(String name, Long userId);
     
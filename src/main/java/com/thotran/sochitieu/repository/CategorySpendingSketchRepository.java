@@ -0,0 +1,34 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategorySpendingSketch;
+import com.thotran.sochitieu.entity.CategorySpendingSketchId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository cho bảng thống kê phân phối chi tiêu theo (user, danh mục).
+ */
+@Repository
+public interface CategorySpendingSketchRepository extends JpaRepository<CategorySpendingSketch, CategorySpendingSketchId>,
+        CategorySpendingSketchRepositoryCustom {
+    
+    // Đọc và khóa dòng (SELECT ... FOR UPDATE) để cập nhật tuần tự giữa các transaction đồng thời
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CategorySpendingSketch s WHERE s.id = :id")
+    Optional<CategorySpendingSketch> findForUpdate(@Param("id") CategorySpendingSketchId id);
+    
+    List<CategorySpendingSketch> findByIdUserId(Long userId);
+    
+    // Xóa thống kê của danh mục (giao dịch của danh mục bị xóa theo cascade)
+    @Modifying
+    @Query("DELETE FROM CategorySpendingSketch s WHERE s.id.categoryId = :categoryId")
+    void deleteByCategoryId(@Param("categoryId") Long categoryId);
+}
@@ -0,0 +1,15 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategorySpendingSketchId;
+
+/**
+ * Các thao tác ghi tùy biến cho bảng thống kê phân phối chi tiêu (SQL riêng theo dialect).
+ */
+public interface CategorySpendingSketchRepositoryCustom {
+    
+    /**
+     * Tạo dòng rỗng nếu chưa có (bỏ qua nếu transaction khác vừa tạo),
+     * để sau đó luôn có thể khóa dòng bằng findForUpdate.
+     */
+    void insertIfAbsent(CategorySpendingSketchId id, byte[] emptyDigest);
+}
@@ -0,0 +1,50 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.CategorySpendingSketchId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Implementation của CategorySpendingSketchRepositoryCustom.
+ * MySQL: INSERT ... ON DUPLICATE KEY UPDATE (không đổi gì), PostgreSQL: INSERT ... ON CONFLICT DO NOTHING.
+ */
+public class CategorySpendingSketchRepositoryCustomImpl implements CategorySpendingSketchRepositoryCustom {
+    
+    private static final String INSERT =
+            "INSERT INTO category_spending_sketches " +
+            "(user_id, category_id, sample_count, ewma_mean, ewma_variance, digest) " +
+            "VALUES (?1, ?2, 0, 0, 0, ?3) ";
+    
+    private static final String MYSQL_INSERT_IF_ABSENT = INSERT +
+            "ON DUPLICATE KEY UPDATE sample_count = sample_count";
+    
+    private static final String POSTGRES_INSERT_IF_ABSENT = INSERT +
+            "ON CONFLICT (user_id, category_id) DO NOTHING";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile String insertSql;
+    
+    @Override
+    public void insertIfAbsent(CategorySpendingSketchId id, byte[] emptyDigest) {
+        entityManager.createNativeQuery(insertSql())
+                .setParameter(1, id.getUserId())
+                .setParameter(2, id.getCategoryId())
+                .setParameter(3, emptyDigest)
+                .executeUpdate();
+    }
+    
+    private String insertSql() {
+        if (insertSql == null) {
+            boolean postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+            insertSql = postgres ? POSTGRES_INSERT_IF_ABSENT : MYSQL_INSERT_IF_ABSENT;
+        }
+        return insertSql;
+    }
+}
@@ -0,0 +1,14 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Một dòng tổng hợp theo (loại giao dịch, danh mục): tổng tiền và số giao dịch,
+ * kèm thông tin hiển thị của danh mục (projection của các câu GROUP BY).
+ */
+public record CategoryTypeTotal(TransactionType type, Long categoryId, String categoryName,
+                                String categoryIcon, String categoryColor,
+                                BigDecimal amount, Long count) {
+}
@@ -0,0 +1,10 @@
+package com.thotran.sochitieu.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tổng thu, tổng chi và số giao dịch của một ngày (projection GROUP BY ngày).
+ */
+public record DailyTotal(LocalDate date, BigDecimal income, BigDecimal expense, Long count) {
+}
@@ -0,0 +1,15 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Một dòng của bảng tổng hợp theo tháng (năm, tháng, loại, danh mục),
+ * kèm thông tin hiển thị của danh mục - projection cho so sánh nhiều kỳ.
+ */
+public record MonthlyCategoryTypeTotal(Integer year, Integer month, TransactionType type,
+                                       Long categoryId, String categoryName,
+                                       String categoryIcon, String categoryColor,
+                                       BigDecimal amount, Long count) {
+}
@@ -0,0 +1,11 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Một dòng tổng hợp theo (năm, tháng, loại giao dịch) - projection cho xu hướng theo tháng.
+ */
+public record MonthlyTypeTotal(Integer year, Integer month, TransactionType type, BigDecimal amount) {
+}
@@ -1,7 +1,10 @@
 package com.thotran.sochitieu.repository;
 
+import com.thotran.sochitieu.dto.response.RecurringTransactionResponse;
 import com.thotran.sochitieu.entity.RecurringTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -14,19 +17,37 @@ import java.util.Optional;
 @Repository
 public interface RecurringTransactionRepository extends JpaRepository<RecurringTransaction, Long> {
     
-    // Lấy tất cả recurring transactions của user
-    List<RecurringTransaction> findByUserId(Long userId);
-    
-    // Lấy theo user và trạng thái
-    List<RecurringTransaction> findByUserIdAndIsActive(Long userId, Boolean isActive);
-    
     // Tìm theo ID và user ID
     Optional<RecurringTransaction> findByIdAndUserId(Long id, Long userId);
     
     // Lấy các recurring đang active và đến hạn (nextDueDate <= today)
     List<RecurringTransaction> findByIsActiveTrueAndNextDueDateLessThanEqual(LocalDate date);
     
+    // Lấy các recurring đang active của user (dự báo dòng tiền)
+    List<RecurringTransaction> findByUserIdAndIsActiveTrue(Long userId);
+    
+    // === Projection: dựng thẳng response, join category một lần (tránh N+1) ===
+    
+    String RESPONSE_SELECT = "SELECT new com.thotran.sochitieu.dto.response.RecurringTransactionResponse(" +
+            "r.id, r.amount, r.type, r.description, r.frequency, r.startDate, r.endDate, " +
+            "r.nextDueDate, r.isActive, c.id, c.name, c.icon, c.color) " +
+            "FROM RecurringTransaction r JOIN r.category c ";
+    
+    // Lấy tất cả recurring transactions của user
+    @Query(RESPONSE_SELECT + "WHERE r.user.id = :userId")
+    List<RecurringTransactionResponse> findResponsesByUserId(@Param("userId") Long userId);
+    
+    // Lấy theo user và trạng thái
+    @Query(RESPONSE_SELECT + "WHERE r.user.id = :userId AND r.isActive = :isActive")
+    List<RecurringTransactionResponse> findResponsesByUserIdAndIsActive(
+            @Param("userId") Long userId,
+            @Param("isActive") Boolean isActive);
+    
     // Lấy theo user và đến hạn trong tháng
-    List<RecurringTransaction> findByUserIdAndIsActiveTrueAndNextDueDateBetween(
-            Long userId, LocalDate startDate, LocalDate endDate);
+    @Query(RESPONSE_SELECT + "WHERE r.user.id = :userId AND r.isActive = true " +
+            "AND r.nextDueDate BETWEEN :startDate AND :endDate")
+    List<RecurringTransactionResponse> findResponsesDueBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,22 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.dto.request.AggregationDimension;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+
+import java.util.List;
+
+/**
+ * Truy vấn tổng hợp (GROUP BY) giao dịch theo các chiều tùy chọn (SQL riêng theo dialect).
+ */
+public interface TransactionAggregationRepository {
+    
+    /**
+     * Tổng tiền + số giao dịch theo các chiều nhóm, với cùng bộ lọc như tìm kiếm giao dịch.
+     * Một câu SQL GROUP BY duy nhất; tổng của mọi nhóm được tính kèm bằng window function.
+     * 
+     * @param byAmount true = sắp xếp theo tổng tiền giảm dần (top N), false = theo giá trị các chiều
+     * @param limit Số nhóm tối đa trả về
+     */
+    AggregationResult aggregate(Long userId, TransactionFilterRequest filter,
+                                List<AggregationDimension> dimensions, boolean byAmount, int limit);
+}
@@ -0,0 +1,230 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.dto.request.AggregationDimension;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation của TransactionAggregationRepository.
+ * 
+ * Các chiều thời gian dùng EXTRACT (chung cho MySQL và PostgreSQL), trừ tuần ISO và thứ trong tuần:
+ * MySQL: YEARWEEK(d, 3), WEEKDAY(d) + 1; PostgreSQL: EXTRACT(ISOYEAR / WEEK / ISODOW).
+ * Giá trị các chiều được trả về dạng số (VD tháng = yyyyMM) rồi định dạng lại trong Java.
+ */
+public class TransactionAggregationRepositoryImpl implements TransactionAggregationRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private volatile Boolean postgres;
+    
+    @Override
+    public AggregationResult aggregate(Long userId, TransactionFilterRequest filter,
+                                       List<AggregationDimension> dimensions, boolean byAmount, int limit) {
+        List<String> groupColumns = new ArrayList<>();
+        for (AggregationDimension dimension : dimensions) {
+            groupColumns.addAll(columnsOf(dimension));
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (String column : groupColumns) {
+            sql.append(column).append(", ");
+        }
+        sql.append("SUM(t.amount), COUNT(*), ")
+                .append("SUM(SUM(t.amount)) OVER (), SUM(COUNT(*)) OVER (), COUNT(*) OVER () ")
+                .append("FROM transactions t ");
+        if (dimensions.contains(AggregationDimension.CATEGORY)) {
+            sql.append("JOIN categories c ON c.id = t.category_id ");
+        }
+        
+        List<Object> parameters = new ArrayList<>();
+        appendFilters(sql, parameters, userId, filter);
+        
+        if (!groupColumns.isEmpty()) {
+            sql.append("GROUP BY ").append(String.join(", ", groupColumns)).append(' ');
+            sql.append("ORDER BY ");
+            if (byAmount) {
+                sql.append("SUM(t.amount) DESC");
+            } else {
+                for (int position = 1; position <= groupColumns.size(); position++) {
+                    sql.append(position > 1 ? ", " : "").append(position);
+                }
+            }
+        }
+        
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int index = 0; index < parameters.size(); index++) {
+            query.setParameter(index + 1, parameters.get(index));
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = query.setMaxResults(limit).getResultList();
+        
+        List<AggregationRow> rows = new ArrayList<>(results.size());
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        long totalCount = 0;
+        long groupCount = 0;
+        for (Object[] result : results) {
+            int column = groupColumns.size();
+            long count = ((Number) result[column + 1]).longValue();
+            totalAmount = toBigDecimal(result[column + 2]);
+            totalCount = ((Number) result[column + 3]).longValue();
+            groupCount = ((Number) result[column + 4]).longValue();
+            
+            // Không có chiều nhóm và không có giao dịch: một dòng rỗng (SUM = NULL), không phải một nhóm
+            // (COUNT(*) OVER () vẫn là 1) - trả về 0 nhóm như bản sao theo cột
+            if (count == 0) {
+                groupCount = 0;
+                continue;
+            }
+            rows.add(new AggregationRow(readGroup(dimensions, result), toBigDecimal(result[column]), count));
+        }
+        
+        return new AggregationResult(rows, totalAmount, totalCount, groupCount);
+    }
+    
+    // === Helper methods ===
+    
+    /**
+     * Biểu thức SQL của một chiều (CATEGORY gồm id + thông tin hiển thị)
+     */
+    private List<String> columnsOf(AggregationDimension dimension) {
+        String date = "t.transaction_date";
+        return switch (dimension) {
+            case CATEGORY -> List.of("t.category_id", "c.name", "c.icon", "c.color");
+            case TYPE -> List.of("t.type");
+            case DAY -> List.of(date);
+            case WEEK -> List.of(isPostgres()
+                    ? "EXTRACT(ISOYEAR FROM " + date + ") * 100 + EXTRACT(WEEK FROM " + date + ")"
+                    : "YEARWEEK(" + date + ", 3)");
+            case MONTH -> List.of("EXTRACT(YEAR FROM " + date + ") * 100 + EXTRACT(MONTH FROM " + date + ")");
+            case QUARTER -> List.of("EXTRACT(YEAR FROM " + date + ") * 10 + EXTRACT(QUARTER FROM " + date + ")");
+            case YEAR -> List.of("EXTRACT(YEAR FROM " + date + ")");
+            case WEEKDAY -> List.of(isPostgres()
+                    ? "EXTRACT(ISODOW FROM " + date + ")"
+                    : "WEEKDAY(" + date + ") + 1");
+        };
+    }
+    
+    /**
+     * Điều kiện WHERE giống TransactionSpecifications.matching (tham số vị trí ?1, ?2...)
+     */
+    private void appendFilters(StringBuilder sql, List<Object> parameters,
+                               Long userId, TransactionFilterRequest filter) {
+        parameters.add(userId);
+        sql.append("WHERE t.user_id = ?1 ");
+        
+        if (filter.getStartDate() != null) {
+            parameters.add(filter.getStartDate());
+            sql.append("AND t.transaction_date >= ?").append(parameters.size()).append(' ');
+        }
+        if (filter.getEndDate() != null) {
+            parameters.add(filter.getEndDate());
+            sql.append("AND t.transaction_date <= ?").append(parameters.size()).append(' ');
+        }
+        
+        Set<Long> categoryIds = new LinkedHashSet<>();
+        if (filter.getCategoryId() != null) {
+            categoryIds.add(filter.getCategoryId());
+        }
+        if (filter.getCategoryIds() != null) {
+            categoryIds.addAll(filter.getCategoryIds());
+        }
+        if (!categoryIds.isEmpty()) {
+            parameters.add(categoryIds);
+            sql.append("AND t.category_id IN (?").append(parameters.size()).append(") ");
+        }
+        
+        if (filter.getType() != null) {
+            parameters.add(filter.getType().name());
+            sql.append("AND t.type = ?").append(parameters.size()).append(' ');
+        }
+        if (filter.getMinAmount() != null) {
+            parameters.add(filter.getMinAmount());
+            sql.append("AND t.amount >= ?").append(parameters.size()).append(' ');
+        }
+        if (filter.getMaxAmount() != null) {
+            parameters.add(filter.getMaxAmount());
+            sql.append("AND t.amount <= ?").append(parameters.size()).append(' ');
+        }
+        
+        if (filter.getKeyword() != null && !filter.getKeyword().isBlank()) {
+            // '!' làm ký tự escape của LIKE: '\' được hiểu khác nhau giữa MySQL và PostgreSQL
+            String escaped = filter.getKeyword().trim().toLowerCase(Locale.ROOT)
+                    .replace("!", "!!")
+                    .replace("%", "!%")
+                    .replace("_", "!_");
+            parameters.add("%" + escaped + "%");
+            sql.append("AND LOWER(t.description) LIKE ?").append(parameters.size()).append(" ESCAPE '!' ");
+        }
+    }
+    
+    /**
+     * Đọc và định dạng giá trị các chiều của một dòng kết quả
+     */
+    private Map<String, Object> readGroup(List<AggregationDimension> dimensions, Object[] result) {
+        Map<String, Object> group = new LinkedHashMap<>();
+        int column = 0;
+        for (AggregationDimension dimension : dimensions) {
+            Object value = result[column];
+            switch (dimension) {
+                case CATEGORY -> {
+                    group.put("category", ((Number) value).longValue());
+                    group.put("categoryName", result[column + 1]);
+                    group.put("categoryIcon", result[column + 2]);
+                    group.put("categoryColor", result[column + 3]);
+                    column += 3;
+                }
+                case TYPE -> group.put("type", String.valueOf(value));
+                case DAY -> group.put("day", String.valueOf(value));
+                case WEEK -> {
+                    int week = ((Number) value).intValue();
+                    group.put("week", String.format("%d-W%02d", week / 100, week % 100));
+                }
+                case MONTH -> {
+                    int month = ((Number) value).intValue();
+                    group.put("month", String.format("%d-%02d", month / 100, month % 100));
+                }
+                case QUARTER -> {
+                    int quarter = ((Number) value).intValue();
+                    group.put("quarter", (quarter / 10) + "-Q" + (quarter % 10));
+                }
+                case YEAR -> group.put("year", ((Number) value).intValue());
+                case WEEKDAY -> group.put("weekday", DayOfWeek.of(((Number) value).intValue()).name());
+            }
+            column++;
+        }
+        return group;
+    }
+    
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+    
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
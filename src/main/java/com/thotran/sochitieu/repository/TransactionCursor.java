@@ -0,0 +1,65 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.dto.request.TransactionSort;
+import com.thotran.sochitieu.dto.response.TransactionResponse;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Cursor phân trang keyset cho danh sách giao dịch.
+ * Vị trí được xác định bởi cặp (khóa sắp xếp, id) của phần tử cuối trang trước,
+ * client chỉ nhận một chuỗi Base64 (opaque) và gửi lại nguyên vẹn.
+ */
+public record TransactionCursor(TransactionSort sort, Comparable<?> key, Long id) {
+    
+    /**
+     * Tạo cursor trỏ tới sau giao dịch cho trước
+     */
+    public static TransactionCursor after(TransactionResponse transaction, TransactionSort sort) {
+        Comparable<?> key = sort.isByAmount()
+                ? transaction.getAmount()
+                : transaction.getTransactionDate();
+        return new TransactionCursor(sort, key, transaction.getId());
+    }
+    
+    /**
+     * Giải mã cursor từ client (null/rỗng = trang đầu, trả về null)
+     */
+    public static TransactionCursor decode(String cursor, TransactionSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            
+            // Cursor của kiểu sắp xếp khác không dùng lại được
+            if (parts.length != 3 || TransactionSort.valueOf(parts[0]) != sort) {
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+            
+            Comparable<?> key = sort.isByAmount()
+                    ? new BigDecimal(parts[1])
+                    : LocalDate.parse(parts[1]);
+            return new TransactionCursor(sort, key, Long.parseLong(parts[2]));
+        } catch (RuntimeException ex) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+    
+    /**
+     * Mã hóa cursor thành chuỗi gửi cho client
+     */
+    public String encode() {
+        String keyText = key instanceof BigDecimal amount ? amount.toPlainString() : key.toString();
+        String raw = sort.name() + "|" + keyText + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,35 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.dto.request.TransactionSort;
+import com.thotran.sochitieu.dto.response.TransactionResponse;
+import com.thotran.sochitieu.entity.Transaction;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Các truy vấn tùy biến cho Transaction (dùng Criteria API).
+ */
+public interface TransactionRepositoryCustom {
+    
+    /**
+     * Tìm giao dịch thỏa mãn tất cả điều kiện trong một câu SQL duy nhất,
+     * sắp xếp theo (khóa sắp xếp, id) và giới hạn số dòng trả về.
+     * Kết quả được dựng thẳng thành TransactionResponse, category được join một lần.
+     */
+    List<TransactionResponse> search(Specification<Transaction> spec, TransactionSort sort, int limit);
+    
+    /**
+     * Đọc tuần tự (streaming) toàn bộ giao dịch thỏa điều kiện, không giới hạn số dòng.
+     * Driver lấy từng lô fetchSize dòng, phải được gọi trong transaction và đóng stream sau khi dùng.
+     */
+    Stream<TransactionResponse> stream(Specification<Transaction> spec, TransactionSort sort, int fetchSize);
+    
+    /**
+     * Đọc tuần tự các cột tổng hợp (id, danh mục, loại, ngày, số tiền) của toàn bộ giao dịch của user,
+     * dùng để dựng bản sao dạng cột. Phải được gọi trong transaction và đóng stream sau khi dùng.
+     */
+    Stream<TransactionSnapshot> streamSnapshots(Long userId, int fetchSize);
+}
@@ -0,0 +1,87 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.dto.request.TransactionSort;
+import com.thotran.sochitieu.dto.response.TransactionResponse;
+import com.thotran.sochitieu.entity.Category;
+import com.thotran.sochitieu.entity.Transaction;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementation của TransactionRepositoryCustom.
+ */
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<TransactionResponse> search(Specification<Transaction> spec, TransactionSort sort, int limit) {
+        return entityManager.createQuery(buildResponseQuery(spec, sort))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    public Stream<TransactionResponse> stream(Specification<Transaction> spec, TransactionSort sort, int fetchSize) {
+        return entityManager.createQuery(buildResponseQuery(spec, sort))
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+    
+    @Override
+    public Stream<TransactionSnapshot> streamSnapshots(Long userId, int fetchSize) {
+        return entityManager.createQuery("SELECT new com.thotran.sochitieu.event.TransactionSnapshot(" +
+                        "t.id, t.user.id, t.category.id, t.type, t.transactionDate, t.amount) " +
+                        "FROM Transaction t WHERE t.user.id = :userId", TransactionSnapshot.class)
+                .setParameter("userId", userId)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+    
+    /**
+     * Dựng câu truy vấn projection: chỉ lấy các cột cần cho response,
+     * join category một lần (tránh lazy-load category từng dòng - N+1)
+     */
+    private CriteriaQuery<TransactionResponse> buildResponseQuery(Specification<Transaction> spec,
+                                                                  TransactionSort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionResponse> query = cb.createQuery(TransactionResponse.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        Join<Transaction, Category> category = root.join("category");
+        
+        query.select(cb.construct(TransactionResponse.class,
+                        root.get("id"),
+                        root.get("amount"),
+                        root.get("type"),
+                        root.get("description"),
+                        root.get("transactionDate"),
+                        category.get("id"),
+                        category.get("name"),
+                        category.get("icon"),
+                        category.get("color")))
+                .where(spec.toPredicate(root, query, cb));
+        
+        Path<?> key = sort.isByAmount() ? root.get("amount") : root.get("transactionDate");
+        if (sort.isDescending()) {
+            query.orderBy(cb.desc(key), cb.desc(root.get("id")));
+        } else {
+            query.orderBy(cb.asc(key), cb.asc(root.get("id")));
+        }
+        
+        return query;
+    }
+}
@@ -0,0 +1,158 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+import com.thotran.sochitieu.entity.Transaction;
+import com.thotran.sochitieu.entity.TransactionType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Các điều kiện lọc (Specification) cho Transaction.
+ * Mỗi method trả về null khi tham số rỗng để có thể ghép tự do bằng and().
+ */
+public final class TransactionSpecifications {
+    
+    private TransactionSpecifications() {
+        // Private constructor - utility class
+    }
+    
+    /**
+     * Ghép toàn bộ điều kiện lọc của request (AND) cho giao dịch của user
+     */
+    public static Specification<Transaction> matching(Long userId, TransactionFilterRequest filter) {
+        return Specification.where(belongsTo(userId))
+                .and(dateFrom(filter.getStartDate()))
+                .and(dateTo(filter.getEndDate()))
+                .and(categoryIn(collectCategoryIds(filter)))
+                .and(hasType(filter.getType()))
+                .and(amountAtLeast(filter.getMinAmount()))
+                .and(amountAtMost(filter.getMaxAmount()))
+                .and(descriptionContains(filter.getKeyword()));
+    }
+    
+    // Giao dịch của user
+    public static Specification<Transaction> belongsTo(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+    
+    // Từ ngày (bao gồm)
+    public static Specification<Transaction> dateFrom(LocalDate startDate) {
+        if (startDate == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("transactionDate"), startDate);
+    }
+    
+    // Đến ngày (bao gồm)
+    public static Specification<Transaction> dateTo(LocalDate endDate) {
+        if (endDate == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("transactionDate"), endDate);
+    }
+    
+    // Thuộc một trong các danh mục
+    public static Specification<Transaction> categoryIn(Collection<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("category").get("id").in(categoryIds);
+    }
+    
+    // Theo loại giao dịch
+    public static Specification<Transaction> hasType(TransactionType type) {
+        if (type == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+    
+    // Số tiền tối thiểu (bao gồm)
+    public static Specification<Transaction> amountAtLeast(BigDecimal minAmount) {
+        if (minAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), minAmount);
+    }
+    
+    // Số tiền tối đa (bao gồm)
+    public static Specification<Transaction> amountAtMost(BigDecimal maxAmount) {
+        if (maxAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), maxAmount);
+    }
+    
+    // Mô tả có chứa từ khóa (không phân biệt hoa thường)
+    public static Specification<Transaction> descriptionContains(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        
+        // Escape ký tự đặc biệt của LIKE để từ khóa được so khớp nguyên văn
+        String escaped = keyword.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        String pattern = "%" + escaped + "%";
+        
+        return (root, query, cb) -> cb.like(cb.lower(root.get("description")), pattern, '\\');
+    }
+    
+    // Chỉ lấy các giao dịch nằm sau cursor (phân trang keyset)
+    public static Specification<Transaction> after(TransactionCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        
+        boolean descending = cursor.sort().isDescending();
+        
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            
+            if (cursor.sort().isByAmount()) {
+                Path<BigDecimal> amount = root.get("amount");
+                return keyset(cb, amount, (BigDecimal) cursor.key(), id, cursor.id(), descending);
+            }
+            
+            Path<LocalDate> date = root.get("transactionDate");
+            return keyset(cb, date, (LocalDate) cursor.key(), id, cursor.id(), descending);
+        };
+    }
+    
+    // Gộp categoryId (API cũ) và categoryIds thành một tập
+    private static Set<Long> collectCategoryIds(TransactionFilterRequest filter) {
+        Set<Long> ids = new HashSet<>();
+        if (filter.getCategoryId() != null) {
+            ids.add(filter.getCategoryId());
+        }
+        if (filter.getCategoryIds() != null) {
+            ids.addAll(filter.getCategoryIds());
+        }
+        return ids;
+    }
+    
+    // (key, id) < (cursorKey, cursorId) khi giảm dần, > khi tăng dần
+    private static <K extends Comparable<? super K>> Predicate keyset(
+            CriteriaBuilder cb, Path<K> keyPath, K key,
+            Path<Long> idPath, Long id, boolean descending) {
+        
+        if (descending) {
+            return cb.or(
+                    cb.lessThan(keyPath, key),
+                    cb.and(cb.equal(keyPath, key), cb.lessThan(idPath, id)));
+        }
+        return cb.or(
+                cb.greaterThan(keyPath, key),
+                cb.and(cb.equal(keyPath, key), cb.greaterThan(idPath, id)));
+    }
+}
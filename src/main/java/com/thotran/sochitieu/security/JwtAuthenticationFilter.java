@@ -1,5 +1,6 @@
 package com.thotran.sochitieu.security;
 
+import com.thotran.sochitieu.entity.Role;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,14 +41,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Validate token và set authentication
             if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
                 Long userId = jwtTokenProvider.getUserIdFromToken(token);
+                Role role = jwtTokenProvider.getRoleFromToken(token);
                 
                 // Tạo Authentication object
                 UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(
                                 userId,                             // Principal: userId
                                 null,                               // Credentials
-                                Collections.singletonList(          // Authorities
-                                        new SimpleGrantedAuthority("ROLE_USER")
+                                Collections.singletonList(          // Authorities: ROLE_USER / ROLE_ADMIN
+                                        new SimpleGrantedAuthority("ROLE_" + role.name())
                                 )
                         );
                 
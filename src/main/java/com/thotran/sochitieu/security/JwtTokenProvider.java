@@ -1,5 +1,6 @@
 package com.thotran.sochitieu.security;
 
+import com.thotran.sochitieu.entity.Role;
 import com.thotran.sochitieu.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
@@ -53,6 +54,24 @@ public class JwtTokenProvider {
         return Long.parseLong(claims.getSubject());
     }
     
+    /**
+     * Lấy role từ JWT token (claim "role"). Token thiếu claim hoặc role không hợp lệ -> USER
+     */
+    public Role getRoleFromToken(String token) {
+        Claims claims = Jwts.parser()
+                .verifyWith(getSigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        
+        String role = claims.get("role", String.class);
+        try {
+            return role != null ? Role.valueOf(role) : Role.USER;
+        } catch (IllegalArgumentException e) {
+            return Role.USER;
+        }
+    }
+    
     /**
      * Validate JWT token
      */
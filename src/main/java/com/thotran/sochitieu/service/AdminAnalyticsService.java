@@ -0,0 +1,242 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.request.AdminMetric;
+import com.thotran.sochitieu.dto.response.AdminAnalyticsResponse;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Service thống kê toàn hệ thống (mọi user) cho admin.
+ * 
+ * Mỗi truy vấn được chia theo khoảng user_id thành nhiều phần, các phần chạy song song trên
+ * virtual thread rồi gộp kết quả (các chỉ số đều cộng được giữa các nhóm user rời nhau).
+ * Truy vấn chạy trên pool kết nối riêng, chỉ đọc và nhỏ (app.admin.analytics.pool-size):
+ * truy vấn admin lớn không chiếm kết nối hay thread xử lý request của người dùng.
+ */
+@Service
+@Slf4j
+public class AdminAnalyticsService {
+    
+    private static final String SPEND_BY_CATEGORY_SQL =
+            "SELECT c.name, SUM(t.amount), COUNT(*) FROM transactions t " +
+            "JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.user_id BETWEEN ? AND ? AND t.type = 'EXPENSE' " +
+            "AND t.transaction_date BETWEEN ? AND ? " +
+            "GROUP BY c.name";
+    
+    private static final String ACTIVE_USERS_PER_DAY_SQL =
+            "SELECT t.transaction_date, COUNT(DISTINCT t.user_id) FROM transactions t " +
+            "WHERE t.user_id BETWEEN ? AND ? AND t.transaction_date BETWEEN ? AND ? " +
+            "GROUP BY t.transaction_date";
+    
+    private static final String TRANSACTIONS_PER_MONTH_SQL =
+            "SELECT EXTRACT(YEAR FROM t.transaction_date) * 100 + EXTRACT(MONTH FROM t.transaction_date), " +
+            "t.type, SUM(t.amount), COUNT(*) FROM transactions t " +
+            "WHERE t.user_id BETWEEN ? AND ? AND t.transaction_date BETWEEN ? AND ? " +
+            "GROUP BY EXTRACT(YEAR FROM t.transaction_date) * 100 + EXTRACT(MONTH FROM t.transaction_date), t.type";
+    
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    // Số phần đang quét cùng lúc (của mọi lần chạy) không vượt quá số kết nối của pool
+    private final Semaphore permits;
+    private final int partitions;
+    
+    public AdminAnalyticsService(DataSourceProperties dataSourceProperties,
+                                 @Value("${app.admin.analytics.pool-size:4}") int poolSize,
+                                 @Value("${app.admin.analytics.partitions:16}") int partitions,
+                                 @Value("${app.admin.analytics.query-timeout-seconds:300}") int queryTimeoutSeconds) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        this.dataSource.setPoolName("admin-analytics");
+        this.dataSource.setMaximumPoolSize(poolSize);
+        this.dataSource.setMinimumIdle(0);
+        this.dataSource.setReadOnly(true);
+        
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        this.permits = new Semaphore(poolSize);
+        this.partitions = partitions;
+    }
+    
+    /**
+     * Tính một chỉ số trong khoảng ngày [startDate, endDate], chạy bất đồng bộ.
+     * 
+     * @param limit Số dòng tối đa (SPEND_BY_CATEGORY: top N danh mục chi nhiều nhất)
+     * @param progress Được gọi sau mỗi phần hoàn thành: (số phần đã xong, tổng số phần)
+     */
+    public CompletableFuture<AdminAnalyticsResponse> run(AdminMetric metric, LocalDate startDate, LocalDate endDate,
+                                                         int limit, BiConsumer<Integer, Integer> progress) {
+        if (startDate.isAfter(endDate)) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Ngày bắt đầu phải trước ngày kết thúc");
+        }
+        if (limit < 1) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Số dòng tối đa phải lớn hơn 0");
+        }
+        
+        return CompletableFuture.supplyAsync(() -> execute(metric, startDate, endDate, limit, progress), executor);
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        dataSource.close();
+    }
+    
+    // === Helper methods ===
+    
+    private AdminAnalyticsResponse execute(AdminMetric metric, LocalDate startDate, LocalDate endDate,
+                                           int limit, BiConsumer<Integer, Integer> progress) {
+        long startedAt = System.nanoTime();
+        List<UserRange> ranges = partitionUsers();
+        AtomicInteger completed = new AtomicInteger();
+        
+        List<CompletableFuture<Map<GroupKey, long[]>>> parts = ranges.stream()
+                .map(range -> CompletableFuture.supplyAsync(() -> scan(metric, range, startDate, endDate), executor)
+                        .whenComplete((part, ex) -> {
+                            if (ex == null) {
+                                progress.accept(completed.incrementAndGet(), ranges.size());
+                            }
+                        }))
+                .toList();
+        
+        // Gộp kết quả từng phần: [tổng tiền (đơn vị nhỏ nhất), số lượng]
+        Map<GroupKey, long[]> merged = new HashMap<>();
+        for (CompletableFuture<Map<GroupKey, long[]>> part : parts) {
+            join(part).forEach((key, values) -> merged.merge(key, values, (current, added) -> {
+                current[0] = Math.addExact(current[0], added[0]);
+                current[1] += added[1];
+                return current;
+            }));
+        }
+        
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info("Admin metric {} [{} - {}] computed over {} partitions in {} ms",
+                metric, startDate, endDate, ranges.size(), elapsedMs);
+        
+        return AdminAnalyticsResponse.builder()
+                .metric(metric)
+                .startDate(startDate)
+                .endDate(endDate)
+                .rows(toRows(metric, merged, limit))
+                .partitions(ranges.size())
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+    
+    /**
+     * Chia [MIN(id), MAX(id)] của bảng users thành các khoảng đều nhau
+     */
+    private List<UserRange> partitionUsers() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM users");
+        if (bounds.get("min_id") == null) {
+            return List.of();
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+        
+        long size = Math.max(1, (maxId - minId) / partitions + 1);
+        List<UserRange> ranges = new ArrayList<>(partitions);
+        for (long from = minId; from <= maxId; from += size) {
+            ranges.add(new UserRange(from, Math.min(maxId, from + size - 1)));
+        }
+        return ranges;
+    }
+    
+    /**
+     * Quét một khoảng user trên một kết nối của pool admin
+     */
+    private Map<GroupKey, long[]> scan(AdminMetric metric, UserRange range, LocalDate startDate, LocalDate endDate) {
+        permits.acquireUninterruptibly();
+        try {
+            Map<GroupKey, long[]> result = new HashMap<>();
+            Object[] args = {range.from(), range.to(), Date.valueOf(startDate), Date.valueOf(endDate)};
+            
+            switch (metric) {
+                case SPEND_BY_CATEGORY -> jdbcTemplate.query(SPEND_BY_CATEGORY_SQL, rs -> {
+                    result.put(new GroupKey(rs.getString(1), null),
+                            new long[]{Money.of(rs.getBigDecimal(2)).minorUnits(), rs.getLong(3)});
+                }, args);
+                case ACTIVE_USERS_PER_DAY -> jdbcTemplate.query(ACTIVE_USERS_PER_DAY_SQL, rs -> {
+                    result.put(new GroupKey(rs.getDate(1).toLocalDate().toString(), null),
+                            new long[]{0, rs.getLong(2)});
+                }, args);
+                case TRANSACTIONS_PER_MONTH -> jdbcTemplate.query(TRANSACTIONS_PER_MONTH_SQL, rs -> {
+                    int month = rs.getInt(1);
+                    result.put(new GroupKey(String.format("%d-%02d", month / 100, month % 100),
+                                    TransactionType.valueOf(rs.getString(2))),
+                            new long[]{Money.of(rs.getBigDecimal(3)).minorUnits(), rs.getLong(4)});
+                }, args);
+            }
+            return result;
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private List<AdminAnalyticsResponse.Row> toRows(AdminMetric metric, Map<GroupKey, long[]> merged, int limit) {
+        Comparator<Map.Entry<GroupKey, long[]>> order = metric == AdminMetric.SPEND_BY_CATEGORY
+                ? Comparator.comparingLong((Map.Entry<GroupKey, long[]> entry) -> entry.getValue()[0]).reversed()
+                : Comparator.comparing((Map.Entry<GroupKey, long[]> entry) -> entry.getKey().key())
+                        .thenComparing(entry -> entry.getKey().type());
+        
+        return merged.entrySet().stream()
+                .sorted(order)
+                .limit(limit)
+                .map(entry -> AdminAnalyticsResponse.Row.builder()
+                        .key(entry.getKey().key())
+                        .type(entry.getKey().type())
+                        .amount(metric == AdminMetric.ACTIVE_USERS_PER_DAY
+                                ? null : Money.ofMinorUnits(entry.getValue()[0]).toBigDecimal())
+                        .count(entry.getValue()[1])
+                        .build())
+                .toList();
+    }
+    
+    /**
+     * Chờ kết quả một phần; lỗi của phần đó được ném lại nguyên vẹn
+     */
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    private record UserRange(long from, long to) {
+    }
+    
+    private record GroupKey(String key, TransactionType type) {
+    }
+}
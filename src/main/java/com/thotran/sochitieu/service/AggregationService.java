@@ -0,0 +1,98 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.request.AggregationDimension;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+import com.thotran.sochitieu.dto.response.AggregationResponse;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+import com.thotran.sochitieu.repository.AggregationResult;
+import com.thotran.sochitieu.repository.AggregationRow;
+import com.thotran.sochitieu.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service tổng hợp giao dịch theo các chiều và bộ lọc tùy chọn (pivot),
+ * dùng chung cho các biểu đồ thay vì viết riêng từng vòng lặp / câu SUM.
+ */
+@Service
+@RequiredArgsConstructor
+public class AggregationService {
+    
+    private final TransactionRepository transactionRepository;
+    private final TransactionColumnStore columnStore;
+    private final TransactionService transactionService;
+    private final AnalyticsCache analyticsCache;
+    
+    // Số nhóm tối đa trả về, phần còn lại được gộp vào nhóm "others"
+    @Value("${app.statistics.aggregation.max-rows:1000}")
+    private int maxRows;
+    
+    /**
+     * Tổng tiền + số giao dịch theo các chiều nhóm: tính trên bản sao dạng cột trong bộ nhớ
+     * nếu đã nạp, ngược lại dùng một câu GROUP BY.
+     * 
+     * @param top Chỉ lấy N nhóm có tổng tiền lớn nhất, phần còn lại gộp vào "others" (null = theo thứ tự các chiều)
+     */
+    public AggregationResponse aggregate(Long userId, List<AggregationDimension> dimensions,
+                                         TransactionFilterRequest filter, Integer top) {
+        List<AggregationDimension> groupBy = dimensions != null ? dimensions : List.of();
+        if (new HashSet<>(groupBy).size() != groupBy.size()) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Các chiều nhóm không được trùng nhau");
+        }
+        if (top != null && top < 1) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Số nhóm top phải lớn hơn 0");
+        }
+        transactionService.validateFilter(filter);
+        
+        boolean byAmount = top != null;
+        int limit = byAmount ? Math.min(top, maxRows) : maxRows;
+        
+        return analyticsCache.get(userId, "statistics.aggregate", List.of(groupBy, filter, limit, byAmount),
+                () -> toResponse(groupBy, columnStore.aggregate(userId, filter, groupBy, byAmount, limit)
+                        .orElseGet(() -> transactionRepository.aggregate(userId, filter, groupBy, byAmount, limit))));
+    }
+    
+    // === Helper methods ===
+    
+    private AggregationResponse toResponse(List<AggregationDimension> dimensions, AggregationResult result) {
+        List<AggregationResponse.Row> rows = new ArrayList<>(result.rows().size() + 1);
+        BigDecimal shownAmount = BigDecimal.ZERO;
+        long shownCount = 0;
+        
+        for (AggregationRow row : result.rows()) {
+            rows.add(AggregationResponse.Row.builder()
+                    .group(row.group())
+                    .amount(row.amount())
+                    .count(row.count())
+                    .build());
+            shownAmount = shownAmount.add(row.amount());
+            shownCount += row.count();
+        }
+        
+        // Các nhóm bị cắt bớt: gộp thành một dòng từ tổng chung (tính bằng window function)
+        if (result.groupCount() > result.rows().size()) {
+            rows.add(AggregationResponse.Row.builder()
+                    .group(Map.of())
+                    .amount(result.totalAmount().subtract(shownAmount))
+                    .count(result.totalCount() - shownCount)
+                    .others(true)
+                    .build());
+        }
+        
+        return AggregationResponse.builder()
+                .dimensions(dimensions)
+                .rows(rows)
+                .totalAmount(result.totalAmount())
+                .totalCount(result.totalCount())
+                .groupCount(result.groupCount())
+                .build();
+    }
+}
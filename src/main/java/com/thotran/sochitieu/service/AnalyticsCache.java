@@ -0,0 +1,123 @@
+package com.thotran.sochitieu.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thotran.sochitieu.event.TransactionChangedEvent;
+import com.thotran.sochitieu.event.TransactionsImportedEvent;
+import com.thotran.sochitieu.event.UserDataChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache trong bộ nhớ cho kết quả Dashboard / Statistics của từng user.
+ * 
+ * Mỗi user có một "phiên bản dữ liệu"; khóa cache gồm (user, phiên bản, truy vấn, tham số).
+ * Ghi giao dịch / danh mục / ngân sách chỉ cần tăng phiên bản của user đó sau khi commit,
+ * các kết quả cũ không còn khóa nào trỏ tới và tự bị loại theo kích thước hoặc TTL.
+ * 
+ * Phiên bản được cấp từ một bộ đếm chung tăng dần, nên kể cả khi phiên bản của user bị loại
+ * khỏi bộ nhớ thì giá trị cấp lại cũng không bao giờ trùng với phiên bản cũ.
+ * 
+ * Loader chạy trong DB transaction read-only (tham gia transaction hiện có nếu có): chỉ lần tính
+ * khi cache miss mới lấy connection, cache hit không đụng tới pool.
+ */
+@Service
+public class AnalyticsCache {
+    
+    private static final String CACHE_NAME = "analytics";
+    
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final Cache<Long, Long> versions;
+    private final Cache<CacheKey, Object> results;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public AnalyticsCache(MeterRegistry meterRegistry,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.analytics.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${app.analytics.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        
+        // Hết TTL thì mọi kết quả của user cũng đã hết hạn, không cần giữ phiên bản lâu hơn
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(ttl)
+                .build();
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size... với tag cache=analytics
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+    
+    /**
+     * Lấy kết quả từ cache, chưa có thì tính bằng loader và lưu lại.
+     * Phiên bản được đọc trước khi tính: nếu dữ liệu đổi trong lúc tính,
+     * kết quả được lưu dưới phiên bản cũ và không bao giờ được đọc lại.
+     * 
+     * @param query Tên truy vấn (vd "dashboard.summary")
+     * @param params Tham số của truy vấn (phải có equals/hashCode)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, String query, List<?> params, Supplier<T> loader) {
+        CacheKey key = new CacheKey(userId, currentVersion(userId), query, params);
+        return (T) results.get(key, ignored -> readOnlyTransaction.execute(status -> loader.get()));
+    }
+    
+    /**
+     * Giao dịch thay đổi: làm mới cache của user sau khi commit
+     * (không có transaction thì làm mới ngay)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        invalidate(event.userId());
+    }
+    
+    /**
+     * Import giao dịch xong: làm mới cache của user sau khi commit
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        invalidate(event.userId());
+    }
+    
+    /**
+     * Danh mục / ngân sách thay đổi: làm mới cache của user sau khi commit
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        invalidate(event.userId());
+    }
+    
+    /**
+     * Bỏ toàn bộ kết quả đã cache của user (tăng phiên bản dữ liệu)
+     */
+    public void invalidate(Long userId) {
+        versions.put(userId, versionSequence.incrementAndGet());
+    }
+    
+    // === Helper methods ===
+    
+    private long currentVersion(Long userId) {
+        return versions.get(userId, ignored -> versionSequence.incrementAndGet());
+    }
+    
+    private record CacheKey(Long userId, long version, String query, List<?> params) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.entity.*;
+import com.thotran.sochitieu.repository.BudgetRepository;
+import com.thotran.sochitieu.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service kiểm tra ngân sách và gửi cảnh báo khi chi tiêu gần/vượt hạn mức.
+ * Được gọi bất đồng bộ sau commit (BudgetEvaluationDispatcher), mỗi lần cho một (danh mục, tháng).
+ */
+@Service
+@RequiredArgsConstructor
+public class BudgetAlertService {
+    
+    private final BudgetRepository budgetRepository;
+    private final CategoryMonthlyTotalService categoryMonthlyTotalService;
+    private final NotificationRepository notificationRepository;
+    
+    // Các ngưỡng cảnh báo (% ngân sách), VD: 50,80,100. Ngưỡng >= 100 là vượt ngân sách
+    @Value("${app.budget.alert-thresholds:80,100}")
+    private List<Integer> thresholds;
+    
+    @PostConstruct
+    void normalizeThresholds() {
+        thresholds = thresholds.stream()
+                .filter(threshold -> threshold != null && threshold > 0)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+    
+    /**
+     * Kiểm tra ngân sách của category trong một tháng và gửi thông báo nếu cần.
+     * 
+     * Mỗi ngưỡng chỉ được thông báo một lần: trạng thái (ngưỡng cao nhất đã báo) được lưu trên budget
+     * và chỉ đổi bằng UPDATE có điều kiện, chỉ lần chuyển lên ngưỡng cao hơn mới gửi thông báo.
+     * Khi chi tiêu giảm (sửa/xóa giao dịch) xuống dưới ngưỡng, trạng thái được hạ xuống để ngưỡng đó có thể báo lại.
+     */
+    @Transactional
+    public void checkBudgetAndNotify(Long userId, Long categoryId, YearMonth period) {
+        int month = period.getMonthValue();
+        int year = period.getYear();
+        
+        // Tìm budget của category trong tháng này
+        Optional<Budget> budgetOpt = budgetRepository.findByUserIdAndCategoryIdAndMonthAndYear(
+                userId, categoryId, month, year);
+        
+        if (budgetOpt.isEmpty()) {
+            return; // Không có budget -> không cần kiểm tra
+        }
+        
+        Budget budget = budgetOpt.get();
+        Money budgetAmount = Money.of(budget.getAmount());
+        
+        // Tổng đã chi trong tháng cho category này (đọc từ bảng tổng hợp)
+        Money spent = Money.of(categoryMonthlyTotalService.getMonthlyAmount(userId, categoryId, year, month));
+        
+        int current = budget.getAlertThresholdOrZero();
+        int reached = highestReachedThreshold(spent, budgetAmount);
+        if (reached == current) {
+            return;
+        }
+        
+        // Có luồng khác đã chuyển trạng thái trước -> bỏ qua
+        if (budgetRepository.compareAndSetAlertThreshold(budget.getId(), current, reached) == 0) {
+            return;
+        }
+        
+        // Chỉ thông báo khi chuyển lên ngưỡng cao hơn
+        if (reached < current) {
+            return;
+        }
+        
+        User user = budget.getUser();
+        String categoryName = budget.getCategory().getName();
+        
+        if (BudgetAlertState.fromThreshold(reached) == BudgetAlertState.EXCEEDED) {
+            sendBudgetExceededNotification(user, categoryName, spent.toBigDecimal(), budgetAmount.toBigDecimal());
+        } else {
+            double percentUsed = spent.percentOf(budgetAmount);
+            sendBudgetWarningNotification(user, categoryName, spent.toBigDecimal(), budgetAmount.toBigDecimal(),
+                    percentUsed);
+        }
+    }
+    
+    // === Helper methods ===
+    
+    /**
+     * Ngưỡng cao nhất mà chi tiêu đã chạm tới (0 nếu chưa chạm ngưỡng nào).
+     * Ngưỡng < 100%: spent >= ngưỡng, ngưỡng >= 100%: spent phải vượt hẳn ngưỡng.
+     */
+    private int highestReachedThreshold(Money spent, Money budgetAmount) {
+        Money spentPercent = spent.times(100);
+        int reached = 0;
+        
+        for (int threshold : thresholds) {
+            int compare = spentPercent.compareTo(budgetAmount.times(threshold));
+            if (compare > 0 || (compare == 0 && threshold < 100)) {
+                reached = threshold;
+            }
+        }
+        return reached;
+    }
+    
+    private void sendBudgetWarningNotification(User user, String categoryName,
+                                                BigDecimal spent, BigDecimal budget, double percentUsed) {
+        String extraData = String.format(
+                "{\"categoryName\":\"%s\",\"spent\":%s,\"budget\":%s,\"percent\":%.1f}",
+                categoryName, spent, budget, percentUsed);
+        
+        Notification notification = Notification.builder()
+                .type(NotificationType.BUDGET_WARNING)
+                .title("⚠️ Cảnh báo ngân sách: " + categoryName)
+                .message(String.format("Bạn đã chi tiêu %.1f%% ngân sách cho %s (%s/%s). Hãy cân nhắc tiết kiệm!",
+                        percentUsed, categoryName, formatCurrency(spent), formatCurrency(budget)))
+                .extraData(extraData)
+                .user(user)
+                .build();
+        
+        notificationRepository.save(notification);
+    }
+    
+    private void sendBudgetExceededNotification(User user, String categoryName,
+                                                 BigDecimal spent, BigDecimal budget) {
+        BigDecimal exceeded = spent.subtract(budget);
+        String extraData = String.format(
+                "{\"categoryName\":\"%s\",\"exceeded\":%s}", categoryName, exceeded);
+        
+        Notification notification = Notification.builder()
+                .type(NotificationType.BUDGET_EXCEEDED)
+                .title("🚨 Vượt ngân sách: " + categoryName)
+                .message(String.format("Bạn đã vượt ngân sách %s với số tiền %s!",
+                        categoryName, formatCurrency(exceeded)))
+                .extraData(extraData)
+                .user(user)
+                .build();
+        
+        notificationRepository.save(notification);
+    }
+    
+    private String formatCurrency(BigDecimal amount) {
+        return String.format("%,.0f đ", amount);
+    }
+}
@@ -0,0 +1,189 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.event.BudgetChangedEvent;
+import com.thotran.sochitieu.event.TransactionChangedEvent;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.event.TransactionsImportedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đánh giá ngân sách bất đồng bộ, tách khỏi luồng ghi giao dịch.
+ * 
+ * Sau khi DB transaction ghi giao dịch commit, mỗi (user, danh mục, tháng) có chi tiêu thay đổi
+ * được đưa vào hàng đợi. Các thay đổi dồn dập của cùng một khóa được gộp lại:
+ * khóa đang chờ thì không xếp thêm, nên mỗi đợt chỉ đánh giá ngân sách một lần.
+ * Việc đánh giá chạy trên virtual thread, số lượng chạy đồng thời bị giới hạn bởi semaphore.
+ */
+@Service
+@Slf4j
+public class BudgetEvaluationDispatcher {
+    
+    private final BudgetAlertService budgetAlertService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxPending;
+    private final long coalesceDelayMs;
+    
+    // Khóa đang chờ đánh giá -> thời điểm được xếp hàng (nanoTime)
+    private final Map<BudgetKey, Long> pending = new ConcurrentHashMap<>();
+    
+    private final Timer lagTimer;
+    private final Timer evaluationTimer;
+    private final Counter coalescedCounter;
+    private final Counter failedCounter;
+    
+    public BudgetEvaluationDispatcher(BudgetAlertService budgetAlertService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.budget.evaluation.max-concurrency:4}") int maxConcurrency,
+                                      @Value("${app.budget.evaluation.max-pending:10000}") int maxPending,
+                                      @Value("${app.budget.evaluation.coalesce-delay-ms:200}") long coalesceDelayMs) {
+        this.budgetAlertService = budgetAlertService;
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxPending = maxPending;
+        this.coalesceDelayMs = coalesceDelayMs;
+        
+        Gauge.builder("budget.evaluation.queue.depth", pending, Map::size)
+                .description("Số (user, danh mục, tháng) đang chờ đánh giá ngân sách")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("budget.evaluation.lag")
+                .description("Thời gian từ lúc commit đến lúc bắt đầu đánh giá ngân sách")
+                .register(meterRegistry);
+        this.evaluationTimer = Timer.builder("budget.evaluation.duration")
+                .description("Thời gian đánh giá ngân sách")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("budget.evaluation.coalesced")
+                .description("Số lần thay đổi được gộp vào một lần đánh giá đang chờ")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("budget.evaluation.failed")
+                .description("Số lần đánh giá ngân sách bị lỗi")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Nhận sự kiện sau khi transaction ghi giao dịch đã commit
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        // removed: chi tiêu giảm có thể mở lại ngưỡng cảnh báo, added: có thể chạm ngưỡng mới
+        submitExpenses(event.removed());
+        submitExpenses(event.added());
+    }
+    
+    /**
+     * Nhận sự kiện sau khi import giao dịch đã commit: mỗi (danh mục, tháng) có chi tiêu
+     * được đánh giá một lần
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        for (TransactionsImportedEvent.ExpensePeriod expense : event.expensePeriods()) {
+            submit(new BudgetKey(event.userId(), expense.categoryId(), expense.period()));
+        }
+    }
+    
+    /**
+     * Ngân sách được tạo / đổi hạn mức (ngưỡng cảnh báo đã về NONE): đánh giá lại sau commit
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBudgetChanged(BudgetChangedEvent event) {
+        submit(new BudgetKey(event.userId(), event.categoryId(), event.period()));
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Budget evaluation stopped with {} pending keys", pending.size());
+            executor.shutdownNow();
+        }
+    }
+    
+    // === Helper methods ===
+    
+    private void submitExpenses(List<TransactionSnapshot> snapshots) {
+        for (TransactionSnapshot snapshot : snapshots) {
+            if (snapshot.type() == TransactionType.EXPENSE) {
+                submit(new BudgetKey(snapshot.userId(), snapshot.categoryId(),
+                        YearMonth.from(snapshot.transactionDate())));
+            }
+        }
+    }
+    
+    private void submit(BudgetKey key) {
+        if (pending.putIfAbsent(key, System.nanoTime()) != null) {
+            coalescedCounter.increment();
+            return;
+        }
+        
+        // Hàng đợi đầy: thread đang commit chờ tới khi có chỗ chạy (backpressure) thay vì bỏ qua.
+        // Không đánh giá ngay trên thread này: đang ở AFTER_COMMIT, mọi ghi DB ở đây tham gia
+        // transaction đã commit và không bao giờ được commit.
+        if (pending.size() > maxPending) {
+            permits.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    run(key);
+                } finally {
+                    permits.release();
+                }
+            });
+            return;
+        }
+        
+        executor.execute(() -> {
+            try {
+                // Chờ một chút để gom các thay đổi tiếp theo của cùng khóa
+                if (coalesceDelayMs > 0) {
+                    Thread.sleep(coalesceDelayMs);
+                }
+                permits.acquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                pending.remove(key);
+                return;
+            }
+            try {
+                run(key);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+    
+    private void run(BudgetKey key) {
+        // Bỏ khóa khỏi hàng đợi trước khi đánh giá: thay đổi đến sau sẽ được xếp lại
+        Long enqueuedAt = pending.remove(key);
+        if (enqueuedAt != null) {
+            lagTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        
+        try {
+            evaluationTimer.record(() ->
+                    budgetAlertService.checkBudgetAndNotify(key.userId(), key.categoryId(), key.period()));
+        } catch (RuntimeException ex) {
+            failedCounter.increment();
+            log.error("Budget evaluation failed for {}", key, ex);
+        }
+    }
+    
+    private record BudgetKey(Long userId, Long categoryId, YearMonth period) {
+    }
+}
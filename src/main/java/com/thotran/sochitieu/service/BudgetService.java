@@ -5,19 +5,19 @@ import com.thotran.sochitieu.dto.response.BudgetResponse;
 import com.thotran.sochitieu.entity.Budget;
 import com.thotran.sochitieu.entity.Category;
 import com.thotran.sochitieu.entity.User;
+import com.thotran.sochitieu.event.BudgetChangedEvent;
+import com.thotran.sochitieu.event.UserDataChangedEvent;
 import com.thotran.sochitieu.exception.AppException;
 import com.thotran.sochitieu.exception.ErrorCode;
 import com.thotran.sochitieu.repository.BudgetRepository;
-import com.thotran.sochitieu.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service xử lý logic nghiệp vụ liên quan đến Budget (Ngân sách).
@@ -27,9 +27,10 @@ import java.util.stream.Collectors;
 public class BudgetService {
     
     private final BudgetRepository budgetRepository;
-    private final TransactionRepository transactionRepository;
+    private final CategoryMonthlyTotalService categoryMonthlyTotalService;
     private final UserService userService;
     private final CategoryService categoryService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Tạo ngân sách mới
@@ -54,6 +55,9 @@ public class BudgetService {
                 .build();
         
         budget = budgetRepository.save(budget);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
+        // Số đã chi có thể đã vượt ngưỡng ngay từ đầu
+        eventPublisher.publishEvent(toChangedEvent(budget, userId));
         
         return mapToResponse(budget, userId);
     }
@@ -62,20 +66,15 @@ public class BudgetService {
      * Lấy tất cả budget của user trong một tháng
      */
     public List<BudgetResponse> getByMonth(Long userId, Integer month, Integer year) {
-        return budgetRepository.findByUserIdAndMonthAndYear(userId, month, year)
-                .stream()
-                .map(budget -> mapToResponse(budget, userId))
-                .collect(Collectors.toList());
+        return budgetRepository.findResponsesByUserIdAndMonthAndYear(userId, month, year);
     }
     
     /**
      * Lấy budget theo ID
      */
     public BudgetResponse getById(Long userId, Long budgetId) {
-        Budget budget = budgetRepository.findByIdAndUserId(budgetId, userId)
+        return budgetRepository.findResponseByIdAndUserId(budgetId, userId)
                 .orElseThrow(() -> new AppException(ErrorCode.BUDGET_NOT_FOUND));
-        
-        return mapToResponse(budget, userId);
     }
     
     /**
@@ -94,12 +93,24 @@ public class BudgetService {
             throw new AppException(ErrorCode.BUDGET_EXISTED);
         }
         
+        // Đổi hạn mức hoặc kỳ/danh mục -> mở lại các ngưỡng cảnh báo
+        boolean resetAlerts = budget.getAmount().compareTo(request.getAmount()) != 0
+                || !budget.getMonth().equals(request.getMonth())
+                || !budget.getYear().equals(request.getYear())
+                || !budget.getCategory().getId().equals(category.getId());
+        
         budget.setAmount(request.getAmount());
         budget.setMonth(request.getMonth());
         budget.setYear(request.getYear());
         budget.setCategory(category);
         
         budget = budgetRepository.save(budget);
+        if (resetAlerts) {
+            // Ngưỡng về NONE rồi đánh giá lại ngay sau commit (VD: hạ hạn mức xuống dưới số đã chi)
+            budgetRepository.resetAlertThreshold(budget.getId());
+            eventPublisher.publishEvent(toChangedEvent(budget, userId));
+        }
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
         
         return mapToResponse(budget, userId);
     }
@@ -113,36 +124,22 @@ public class BudgetService {
                 .orElseThrow(() -> new AppException(ErrorCode.BUDGET_NOT_FOUND));
         
         budgetRepository.delete(budget);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
+    }
+    
+    private BudgetChangedEvent toChangedEvent(Budget budget, Long userId) {
+        return new BudgetChangedEvent(userId, budget.getCategory().getId(),
+                YearMonth.of(budget.getYear(), budget.getMonth()));
     }
     
     // === Helper method: Convert Entity -> DTO (có tính toán spent) ===
     private BudgetResponse mapToResponse(Budget budget, Long userId) {
-        // Tính ngày đầu và cuối tháng
-        LocalDate startOfMonth = LocalDate.of(budget.getYear(), budget.getMonth(), 1);
-        LocalDate endOfMonth = startOfMonth.withDayOfMonth(startOfMonth.lengthOfMonth());
-        
-        // Tính tổng đã chi cho category trong tháng này
-        BigDecimal spent = transactionRepository.sumAmountByUserIdAndCategoryIdAndDateBetween(
-                userId, budget.getCategory().getId(), startOfMonth, endOfMonth);
+        // Tổng đã chi cho category trong tháng này (đọc từ bảng tổng hợp)
+        BigDecimal spent = categoryMonthlyTotalService.getMonthlyAmount(
+                userId, budget.getCategory().getId(), budget.getYear(), budget.getMonth());
         
-        // Tính số còn lại và phần trăm
-        BigDecimal remaining = budget.getAmount().subtract(spent);
-        Double percentUsed = spent.divide(budget.getAmount(), 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                .doubleValue();
-        
-        return BudgetResponse.builder()
-                .id(budget.getId())
-                .amount(budget.getAmount())
-                .spent(spent)
-                .remaining(remaining)
-                .percentUsed(percentUsed)
-                .month(budget.getMonth())
-                .year(budget.getYear())
-                .categoryId(budget.getCategory().getId())
-                .categoryName(budget.getCategory().getName())
-                .categoryIcon(budget.getCategory().getIcon())
-                .categoryColor(budget.getCategory().getColor())
-                .build();
+        return new BudgetResponse(budget.getId(), budget.getAmount(), budget.getMonth(), budget.getYear(),
+                budget.getCategory().getId(), budget.getCategory().getName(),
+                budget.getCategory().getIcon(), budget.getCategory().getColor(), spent);
     }
 }
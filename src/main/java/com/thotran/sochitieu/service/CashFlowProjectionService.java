@@ -0,0 +1,155 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.response.CashFlowProjectionResponse;
+import com.thotran.sochitieu.entity.RecurringTransaction;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+import com.thotran.sochitieu.repository.DailyTotal;
+import com.thotran.sochitieu.repository.RecurringTransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service dự báo số dư theo ngày cho các ngày tới.
+ * 
+ * Số dư dự kiến = số dư hiện tại
+ *  + các lần đến hạn của giao dịch định kỳ đang hoạt động (duyệt lười, không tạo giao dịch)
+ *  + giao dịch đã nhập cho các ngày tới
+ *  - chi tiêu không định kỳ ước tính: chi trung bình theo danh mục trong history-days ngày gần nhất,
+ *    trừ phần chi định kỳ của danh mục đó (đã tính ở trên), chia đều cho các ngày.
+ * Mọi số tiền được cộng dồn bằng long (đơn vị nhỏ nhất) trong mảng theo ngày.
+ */
+@Service
+public class CashFlowProjectionService {
+    
+    private final RecurringTransactionRepository recurringRepository;
+    private final CategoryDailyTotalService dailyTotalService;
+    private final int maxDays;
+    private final int historyDays;
+    
+    public CashFlowProjectionService(RecurringTransactionRepository recurringRepository,
+                                     CategoryDailyTotalService dailyTotalService,
+                                     @Value("${app.projection.max-days:366}") int maxDays,
+                                     @Value("${app.projection.history-days:90}") int historyDays) {
+        this.recurringRepository = recurringRepository;
+        this.dailyTotalService = dailyTotalService;
+        this.maxDays = maxDays;
+        this.historyDays = historyDays;
+    }
+    
+    /**
+     * Dự báo số dư cho days ngày, bắt đầu từ hôm nay
+     */
+    @Transactional(readOnly = true)
+    public CashFlowProjectionResponse project(Long userId, int days) {
+        if (days < 1 || days > maxDays) {
+            throw new AppException(ErrorCode.INVALID_INPUT,
+                    "Số ngày dự báo phải từ 1 đến " + maxDays);
+        }
+        
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = today.plusDays(days - 1L);
+        long[] income = new long[days];
+        long[] expense = new long[days];
+        
+        // 1. Giao dịch định kỳ: tổng chi định kỳ theo danh mục để không tính trùng với chi ước tính
+        Map<Long, Long> recurringExpenseByCategory = new HashMap<>();
+        for (RecurringTransaction recurring : recurringRepository.findByUserIdAndIsActiveTrue(userId)) {
+            long amount = Money.of(recurring.getAmount()).minorUnits();
+            long[] target = recurring.getType() == TransactionType.INCOME ? income : expense;
+            
+            long occurrences = 0;
+            RecurringOccurrences dueDays = new RecurringOccurrences(recurring, today, days);
+            while (dueDays.hasNext()) {
+                int day = dueDays.nextInt();
+                target[day] = Math.addExact(target[day], amount);
+                occurrences++;
+            }
+            
+            if (recurring.getType() == TransactionType.EXPENSE && occurrences > 0) {
+                recurringExpenseByCategory.merge(recurring.getCategory().getId(),
+                        Math.multiplyExact(amount, occurrences), Math::addExact);
+            }
+        }
+        
+        // 2. Giao dịch đã nhập cho các ngày sau hôm nay
+        if (days > 1) {
+            for (DailyTotal total : dailyTotalService.getDailyTotals(userId, today.plusDays(1), endDate)) {
+                int day = (int) ChronoUnit.DAYS.between(today, total.date());
+                income[day] = Math.addExact(income[day], Money.of(total.income()).minorUnits());
+                expense[day] = Math.addExact(expense[day], Money.of(total.expense()).minorUnits());
+            }
+        }
+        
+        Money scheduledIncome = sum(income);
+        Money scheduledExpense = sum(expense);
+        
+        // 3. Chi tiêu không định kỳ ước tính, chia đều (không lệch do làm tròn) cho các ngày
+        long estimated = 0;
+        SpendingSummary history = dailyTotalService.summarize(userId, today.minusDays(historyDays), today.minusDays(1));
+        for (SpendingSummary.Row row : history.getExpenseCategories()) {
+            long projected = Math.multiplyExact(row.amount().minorUnits(), days) / historyDays
+                    - recurringExpenseByCategory.getOrDefault(row.categoryId(), 0L);
+            if (projected > 0) {
+                estimated = Math.addExact(estimated, projected);
+            }
+        }
+        for (int day = 0; day < days; day++) {
+            long share = Math.multiplyExact(estimated, day + 1L) / days - Math.multiplyExact(estimated, (long) day) / days;
+            expense[day] = Math.addExact(expense[day], share);
+        }
+        
+        // 4. Số dư cuối mỗi ngày
+        Money openingBalance = dailyTotalService.getBalanceAt(userId, today);
+        long balance = openingBalance.minorUnits();
+        long lowest = Long.MAX_VALUE;
+        int lowestDay = 0;
+        List<CashFlowProjectionResponse.Day> series = new ArrayList<>(days);
+        
+        for (int day = 0; day < days; day++) {
+            balance = Math.subtractExact(Math.addExact(balance, income[day]), expense[day]);
+            if (balance < lowest) {
+                lowest = balance;
+                lowestDay = day;
+            }
+            series.add(CashFlowProjectionResponse.Day.builder()
+                    .date(today.plusDays(day))
+                    .income(Money.ofMinorUnits(income[day]).toBigDecimal())
+                    .expense(Money.ofMinorUnits(expense[day]).toBigDecimal())
+                    .balance(Money.ofMinorUnits(balance).toBigDecimal())
+                    .build());
+        }
+        
+        return CashFlowProjectionResponse.builder()
+                .startDate(today)
+                .endDate(endDate)
+                .openingBalance(openingBalance.toBigDecimal())
+                .closingBalance(Money.ofMinorUnits(balance).toBigDecimal())
+                .lowestBalance(Money.ofMinorUnits(lowest).toBigDecimal())
+                .lowestBalanceDate(today.plusDays(lowestDay))
+                .scheduledIncome(scheduledIncome.toBigDecimal())
+                .scheduledExpense(scheduledExpense.toBigDecimal())
+                .estimatedExpense(Money.ofMinorUnits(estimated).toBigDecimal())
+                .days(series)
+                .build();
+    }
+    
+    // === Helper methods ===
+    
+    private Money sum(long[] amounts) {
+        long total = 0;
+        for (long amount : amounts) {
+            total = Math.addExact(total, amount);
+        }
+        return Money.ofMinorUnits(total);
+    }
+}
@@ -0,0 +1,154 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.entity.CategoryDailyTotalId;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.event.TransactionChanges;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.repository.CategoryCumulativeTotal;
+import com.thotran.sochitieu.repository.CategoryDailyTotalRepository;
+import com.thotran.sochitieu.repository.DailyTotal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service duy trì bảng tổng hợp theo (user, danh mục, ngày) có tổng lũy kế (prefix sum).
+ * 
+ * Thống kê theo danh mục trong khoảng ngày bất kỳ chỉ cần hai lần đọc lũy kế cho mỗi danh mục
+ * (cuối khoảng và trước đầu khoảng), chi phí không tăng theo độ dài khoảng hay số giao dịch.
+ * Bảng được cập nhật ngay trong DB transaction của thay đổi giao dịch (listener đồng bộ).
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryDailyTotalService {
+    
+    // Thứ tự ghi cố định (danh mục, ngày) để các transaction đồng thời khóa dòng theo cùng thứ tự
+    private static final Comparator<CategoryDailyTotalId> WRITE_ORDER = Comparator
+            .comparing(CategoryDailyTotalId::getCategoryId)
+            .thenComparing(CategoryDailyTotalId::getBucketDate);
+    
+    private final CategoryDailyTotalRepository totalRepository;
+    
+    /**
+     * Cập nhật bảng tổng hợp theo sự kiện thay đổi giao dịch.
+     * Các thay đổi cùng (danh mục, ngày) được gộp lại trước, mỗi ngày chỉ ghi một lần.
+     */
+    @EventListener
+    public void onTransactionChanged(TransactionChanges event) {
+        Map<CategoryDailyTotalId, Delta> deltas = new HashMap<>();
+        accumulate(deltas, event.removed(), -1);
+        accumulate(deltas, event.added(), 1);
+        
+        deltas.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .sorted(Map.Entry.comparingByKey(WRITE_ORDER))
+                .forEach(entry -> {
+                    Delta delta = entry.getValue();
+                    totalRepository.applyDelta(entry.getKey(), delta.income.toBigDecimal(), delta.incomeCount,
+                            delta.expense.toBigDecimal(), delta.expenseCount);
+                });
+    }
+    
+    /**
+     * Tổng hợp thu/chi theo danh mục trong khoảng ngày [startDate, endDate]
+     * = lũy kế đến endDate - lũy kế đến ngày trước startDate
+     */
+    public SpendingSummary summarize(Long userId, LocalDate startDate, LocalDate endDate) {
+        Map<Long, CategoryCumulativeTotal> before = new HashMap<>();
+        for (CategoryCumulativeTotal total : totalRepository.findCumulativeTotalsAt(userId, startDate.minusDays(1))) {
+            before.put(total.categoryId(), total);
+        }
+        
+        List<SpendingSummary.Row> rows = new ArrayList<>();
+        for (CategoryCumulativeTotal end : totalRepository.findCumulativeTotalsAt(userId, endDate)) {
+            CategoryCumulativeTotal start = before.get(end.categoryId());
+            
+            long incomeCount = end.incomeCount() - (start != null ? start.incomeCount() : 0);
+            if (incomeCount > 0) {
+                Money income = start != null ? Money.of(end.income()).minus(Money.of(start.income())) : Money.of(end.income());
+                rows.add(toRow(TransactionType.INCOME, end, income, incomeCount));
+            }
+            
+            long expenseCount = end.expenseCount() - (start != null ? start.expenseCount() : 0);
+            if (expenseCount > 0) {
+                Money expense = start != null ? Money.of(end.expense()).minus(Money.of(start.expense())) : Money.of(end.expense());
+                rows.add(toRow(TransactionType.EXPENSE, end, expense, expenseCount));
+            }
+        }
+        
+        return SpendingSummary.ofRows(rows);
+    }
+    
+    /**
+     * Số dư (tổng thu - tổng chi) của mọi giao dịch tính đến hết ngày date
+     */
+    public Money getBalanceAt(Long userId, LocalDate date) {
+        Money balance = Money.ZERO;
+        for (CategoryCumulativeTotal total : totalRepository.findCumulativeTotalsAt(userId, date)) {
+            balance = balance.plus(Money.of(total.income())).minus(Money.of(total.expense()));
+        }
+        return balance;
+    }
+    
+    /**
+     * Tổng thu/chi theo ngày trong [startDate, endDate], một câu GROUP BY (chỉ các ngày có giao dịch)
+     */
+    public List<DailyTotal> getDailyTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        return totalRepository.sumByDayBetween(userId, startDate, endDate);
+    }
+    
+    /**
+     * Dựng lại toàn bộ bảng tổng hợp từ bảng transactions
+     */
+    @Transactional
+    public int rebuild() {
+        totalRepository.deleteAllInBatch();
+        return totalRepository.rebuildFromTransactions();
+    }
+    
+    // === Helper methods ===
+    
+    private SpendingSummary.Row toRow(TransactionType type, CategoryCumulativeTotal category,
+                                      Money amount, long count) {
+        return new SpendingSummary.Row(type, category.categoryId(), category.categoryName(),
+                category.categoryIcon(), category.categoryColor(), amount, count);
+    }
+    
+    private void accumulate(Map<CategoryDailyTotalId, Delta> deltas,
+                            List<TransactionSnapshot> snapshots, int sign) {
+        for (TransactionSnapshot snapshot : snapshots) {
+            CategoryDailyTotalId id = new CategoryDailyTotalId(
+                    snapshot.userId(), snapshot.categoryId(), snapshot.transactionDate());
+            
+            Delta delta = deltas.computeIfAbsent(id, key -> new Delta());
+            Money amount = sign > 0 ? Money.of(snapshot.amount()) : Money.of(snapshot.amount()).negate();
+            if (snapshot.type() == TransactionType.INCOME) {
+                delta.income = delta.income.plus(amount);
+                delta.incomeCount += sign;
+            } else {
+                delta.expense = delta.expense.plus(amount);
+                delta.expenseCount += sign;
+            }
+        }
+    }
+    
+    private static class Delta {
+        Money income = Money.ZERO;
+        long incomeCount;
+        Money expense = Money.ZERO;
+        long expenseCount;
+        
+        boolean isEmpty() {
+            return incomeCount == 0 && expenseCount == 0
+                    && income.signum() == 0 && expense.signum() == 0;
+        }
+    }
+}
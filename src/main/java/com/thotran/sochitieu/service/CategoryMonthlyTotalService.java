@@ -0,0 +1,157 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.entity.CategoryMonthlyTotalId;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.event.TransactionChanges;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.repository.CategoryMonthlyTotalRepository;
+import com.thotran.sochitieu.repository.MonthlyCategoryTypeTotal;
+import com.thotran.sochitieu.repository.MonthlyTypeTotal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service duy trì bảng tổng hợp giao dịch theo (user, danh mục, tháng, loại).
+ * 
+ * Mỗi thay đổi giao dịch được cộng/trừ vào các dòng tổng hợp tương ứng ngay trong
+ * DB transaction của thay đổi đó (listener đồng bộ), nên số liệu luôn khớp với bảng transactions.
+ * Dashboard và thống kê theo tháng đọc từ bảng này, chi phí không tăng theo số giao dịch.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryMonthlyTotalService {
+    
+    private final CategoryMonthlyTotalRepository totalRepository;
+    
+    /**
+     * Cập nhật bảng tổng hợp theo sự kiện thay đổi giao dịch.
+     * Các thay đổi cùng một dòng được gộp lại trước, mỗi dòng chỉ ghi một lần.
+     */
+    @EventListener
+    public void onTransactionChanged(TransactionChanges event) {
+        Map<CategoryMonthlyTotalId, Delta> deltas = new HashMap<>();
+        accumulate(deltas, event.removed(), -1);
+        accumulate(deltas, event.added(), 1);
+        
+        deltas.forEach((id, delta) -> {
+            if (delta.count != 0 || delta.amount.signum() != 0) {
+                totalRepository.applyDelta(id, delta.amount.toBigDecimal(), delta.count);
+            }
+        });
+    }
+    
+    /**
+     * Tổng tiền giao dịch của danh mục trong tháng
+     */
+    public BigDecimal getMonthlyAmount(Long userId, Long categoryId, int year, int month) {
+        return totalRepository.sumAmountByCategoryAndMonth(userId, categoryId, year, month);
+    }
+    
+    /**
+     * Tổng hợp thu/chi theo danh mục của các tháng trọn vẹn [from, to]
+     */
+    public SpendingSummary summarize(Long userId, YearMonth from, YearMonth to) {
+        return SpendingSummary.of(totalRepository.sumByTypeAndCategoryBetweenPeriods(
+                userId, period(from), period(to)));
+    }
+    
+    /**
+     * Tổng thu/chi theo từng tháng trong [from, to] (chỉ các tháng có giao dịch)
+     */
+    public List<MonthlyTypeTotal> getMonthlyTypeTotals(Long userId, YearMonth from, YearMonth to) {
+        return totalRepository.sumByMonthAndTypeBetweenPeriods(userId, period(from), period(to));
+    }
+    
+    /**
+     * Tổng hợp thu/chi theo danh mục cho từng kỳ trong danh sách - một câu truy vấn cho mọi kỳ.
+     * Kết quả theo đúng thứ tự danh sách kỳ.
+     */
+    public List<SpendingSummary> summarizePeriods(Long userId, List<ReportPeriod> periods) {
+        // Tháng -> các kỳ chứa tháng đó (danh sách kỳ có thể trùng nhau)
+        Map<YearMonth, List<Integer>> periodsByMonth = new HashMap<>();
+        for (int index = 0; index < periods.size(); index++) {
+            for (YearMonth month : periods.get(index).months()) {
+                periodsByMonth.computeIfAbsent(month, key -> new ArrayList<>()).add(index);
+            }
+        }
+        
+        List<Map<CategoryTypeKey, SpendingSummary.Row>> rowsByPeriod = new ArrayList<>(periods.size());
+        for (int index = 0; index < periods.size(); index++) {
+            rowsByPeriod.add(new HashMap<>());
+        }
+        
+        List<Integer> monthPeriods = periodsByMonth.keySet().stream()
+                .map(CategoryMonthlyTotalService::period)
+                .toList();
+        for (MonthlyCategoryTypeTotal row : totalRepository.findByMonthPeriods(userId, monthPeriods)) {
+            YearMonth month = YearMonth.of(row.year(), row.month());
+            CategoryTypeKey key = new CategoryTypeKey(row.type(), row.categoryId());
+            for (int index : periodsByMonth.get(month)) {
+                rowsByPeriod.get(index).merge(key, toRow(row), (current, added) ->
+                        new SpendingSummary.Row(current.type(), current.categoryId(), current.categoryName(),
+                                current.categoryIcon(), current.categoryColor(),
+                                current.amount().plus(added.amount()), current.count() + added.count()));
+            }
+        }
+        
+        return rowsByPeriod.stream()
+                .map(rows -> SpendingSummary.ofRows(new ArrayList<>(rows.values())))
+                .toList();
+    }
+    
+    /**
+     * Dựng lại toàn bộ bảng tổng hợp từ bảng transactions.
+     * Dùng khi khởi động với tham số --rebuild-monthly-totals (VD: sau khi sửa dữ liệu trực tiếp trong DB).
+     */
+    @Transactional
+    public int rebuild() {
+        totalRepository.deleteAllInBatch();
+        return totalRepository.rebuildFromTransactions();
+    }
+    
+    // === Helper methods ===
+    
+    private static int period(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+    
+    private static SpendingSummary.Row toRow(MonthlyCategoryTypeTotal row) {
+        return new SpendingSummary.Row(row.type(), row.categoryId(), row.categoryName(),
+                row.categoryIcon(), row.categoryColor(), Money.of(row.amount()), row.count());
+    }
+    
+    private void accumulate(Map<CategoryMonthlyTotalId, Delta> deltas,
+                            List<TransactionSnapshot> snapshots, int sign) {
+        for (TransactionSnapshot snapshot : snapshots) {
+            CategoryMonthlyTotalId id = new CategoryMonthlyTotalId(
+                    snapshot.userId(),
+                    snapshot.categoryId(),
+                    snapshot.transactionDate().getYear(),
+                    snapshot.transactionDate().getMonthValue(),
+                    snapshot.type());
+            
+            Delta delta = deltas.computeIfAbsent(id, key -> new Delta());
+            delta.amount = sign > 0
+                    ? delta.amount.plus(Money.of(snapshot.amount()))
+                    : delta.amount.minus(Money.of(snapshot.amount()));
+            delta.count += sign;
+        }
+    }
+    
+    private record CategoryTypeKey(TransactionType type, Long categoryId) {
+    }
+    
+    private static class Delta {
+        Money amount = Money.ZERO;
+        long count;
+    }
+}
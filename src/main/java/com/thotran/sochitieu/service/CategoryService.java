@@ -5,10 +5,15 @@ import com.thotran.sochitieu.dto.response.CategoryResponse;
 import com.thotran.sochitieu.entity.Category;
 import com.thotran.sochitieu.entity.TransactionType;
 import com.thotran.sochitieu.entity.User;
+import com.thotran.sochitieu.event.UserDataChangedEvent;
 import com.thotran.sochitieu.exception.AppException;
 import com.thotran.sochitieu.exception.ErrorCode;
+import com.thotran.sochitieu.repository.CategoryDailyTotalRepository;
+import com.thotran.sochitieu.repository.CategoryMonthlyTotalRepository;
 import com.thotran.sochitieu.repository.CategoryRepository;
+import com.thotran.sochitieu.repository.CategorySpendingSketchRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +29,10 @@ public class CategoryService {
     
     private final CategoryRepository categoryRepository;
     private final UserService userService;
+    private final CategoryMonthlyTotalRepository totalRepository;
+    private final CategoryDailyTotalRepository dailyTotalRepository;
+    private final CategorySpendingSketchRepository sketchRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Tạo danh mục mới
@@ -46,6 +55,7 @@ public class CategoryService {
                 .build();
         
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
         
         return mapToResponse(category);
     }
@@ -107,6 +117,7 @@ public class CategoryService {
         category.setColor(request.getColor());
         
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
         
         return mapToResponse(category);
     }
@@ -119,7 +130,12 @@ public class CategoryService {
         Category category = categoryRepository.findByIdAndUserId(categoryId, userId)
                 .orElseThrow(() -> new AppException(ErrorCode.CATEGORY_NOT_FOUND));
         
+        // Giao dịch của danh mục bị xóa theo cascade -> xóa luôn số liệu tổng hợp
+        totalRepository.deleteByCategoryId(categoryId);
+        dailyTotalRepository.deleteByCategoryId(categoryId);
+        sketchRepository.deleteByCategoryId(categoryId);
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
     }
     
     // === Helper method: Convert Entity -> DTO ===
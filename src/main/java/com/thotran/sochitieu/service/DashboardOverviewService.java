@@ -0,0 +1,101 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.response.CategoryChartResponse;
+import com.thotran.sochitieu.dto.response.DashboardOverviewResponse;
+import com.thotran.sochitieu.dto.response.DashboardSummaryResponse;
+import com.thotran.sochitieu.dto.response.MonthlyTrendResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Gom các phần của màn hình Dashboard (tổng quan, biểu đồ danh mục, xu hướng, số thông báo chưa đọc)
+ * vào một response.
+ * 
+ * Mỗi phần chạy song song trên một virtual thread riêng, nên thời gian trả về xấp xỉ phần chậm nhất
+ * thay vì tổng các phần. Connection chỉ được lấy khi thực sự truy vấn: phần có sẵn trong AnalyticsCache
+ * không mở DB transaction nào (loader của cache tự mở transaction read-only khi miss).
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardOverviewService {
+    
+    private final DashboardService dashboardService;
+    private final NotificationService notificationService;
+    
+    /**
+     * Lấy toàn bộ dữ liệu Dashboard của tháng month/year và xu hướng trendMonths tháng gần nhất
+     * 
+     * @param debug true = trả kèm thời gian xử lý từng phần
+     */
+    public DashboardOverviewResponse getOverview(Long userId, int month, int year,
+                                                 int trendMonths, boolean debug) {
+        long startedAt = System.nanoTime();
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Panel<DashboardSummaryResponse>> summary = submit(executor,
+                    () -> dashboardService.getSummary(userId, month, year));
+            CompletableFuture<Panel<List<CategoryChartResponse>>> expenseByCategory = submit(executor,
+                    () -> dashboardService.getExpenseByCategory(userId, month, year));
+            CompletableFuture<Panel<List<MonthlyTrendResponse>>> monthlyTrend = submit(executor,
+                    () -> dashboardService.getMonthlyTrend(userId, trendMonths));
+            CompletableFuture<Panel<Long>> unreadCount = submit(executor,
+                    () -> notificationService.countUnread(userId));
+            
+            DashboardOverviewResponse response = DashboardOverviewResponse.builder()
+                    .summary(join(summary).value())
+                    .expenseByCategory(join(expenseByCategory).value())
+                    .monthlyTrend(join(monthlyTrend).value())
+                    .unreadNotificationCount(join(unreadCount).value())
+                    .build();
+            
+            if (debug) {
+                Map<String, Long> timings = new LinkedHashMap<>();
+                timings.put("summary", join(summary).elapsedMs());
+                timings.put("expenseByCategory", join(expenseByCategory).elapsedMs());
+                timings.put("monthlyTrend", join(monthlyTrend).elapsedMs());
+                timings.put("unreadNotificationCount", join(unreadCount).elapsedMs());
+                timings.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                response.setTimings(timings);
+            }
+            
+            return response;
+        }
+    }
+    
+    // === Helper methods ===
+    
+    private <T> CompletableFuture<Panel<T>> submit(ExecutorService executor, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            long panelStartedAt = System.nanoTime();
+            T value = work.get();
+            return new Panel<>(value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - panelStartedAt));
+        }, executor);
+    }
+    
+    /**
+     * Chờ kết quả một phần; lỗi của phần đó (AppException...) được ném lại nguyên vẹn
+     */
+    private <T> Panel<T> join(CompletableFuture<Panel<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    private record Panel<T>(T value, long elapsedMs) {
+    }
+}
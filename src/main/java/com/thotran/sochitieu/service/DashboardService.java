@@ -2,196 +2,124 @@ package com.thotran.sochitieu.service;
 
 import com.thotran.sochitieu.dto.response.CategoryChartResponse;
 import com.thotran.sochitieu.dto.response.DashboardSummaryResponse;
-import com.thotran.sochitieu.dto.response.DashboardSummaryResponse.CategoryExpenseResponse;
 import com.thotran.sochitieu.dto.response.MonthlyTrendResponse;
-import com.thotran.sochitieu.entity.Category;
 import com.thotran.sochitieu.entity.TransactionType;
-import com.thotran.sochitieu.repository.CategoryRepository;
-import com.thotran.sochitieu.repository.TransactionRepository;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+import com.thotran.sochitieu.repository.MonthlyTypeTotal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service xử lý logic cho Dashboard.
+ * Kết quả được cache theo user (AnalyticsCache), tự làm mới khi dữ liệu của user thay đổi.
  */
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
     
-    private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryMonthlyTotalService categoryMonthlyTotalService;
+    private final AnalyticsCache analyticsCache;
+    
+    // Số danh mục chi tiêu nhiều nhất hiển thị trên tổng quan
+    private static final int TOP_CATEGORY_LIMIT = 5;
+    
+    // Số tháng tối đa của biểu đồ xu hướng (mặc định 20 năm)
+    @Value("${app.dashboard.trend.max-months:240}")
+    private int maxTrendMonths;
     
     /**
      * Lấy tổng quan tài chính của tháng hiện tại
      */
     public DashboardSummaryResponse getSummary(Long userId, Integer month, Integer year) {
-        // Xác định khoảng thời gian
-        LocalDate startOfMonth = LocalDate.of(year, month, 1);
-        LocalDate endOfMonth = startOfMonth.withDayOfMonth(startOfMonth.lengthOfMonth());
-        
-        // Tính tổng thu
-        BigDecimal totalIncome = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.INCOME, startOfMonth, endOfMonth);
-        
-        // Tính tổng chi
-        BigDecimal totalExpense = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.EXPENSE, startOfMonth, endOfMonth);
-        
-        // Tính số dư
-        BigDecimal balance = totalIncome.subtract(totalExpense);
-        
-        // Tính tỷ lệ tiết kiệm
-        Double savingsRate = 0.0;
-        if (totalIncome.compareTo(BigDecimal.ZERO) > 0) {
-            savingsRate = balance.divide(totalIncome, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .doubleValue();
-        }
-        
-        // Đếm số giao dịch
-        Long transactionCount = (long) transactionRepository
-                .findByUserIdAndTransactionDateBetweenOrderByTransactionDateDesc(
-                        userId, startOfMonth, endOfMonth).size();
-        
-        // Lấy top 5 categories chi tiêu nhiều nhất
-        List<CategoryExpenseResponse> topCategories = getTopExpenseCategories(
-                userId, startOfMonth, endOfMonth, totalExpense, 5);
-        
-        return DashboardSummaryResponse.builder()
-                .totalIncome(totalIncome)
-                .totalExpense(totalExpense)
-                .balance(balance)
-                .savingsRate(savingsRate)
-                .transactionCount(transactionCount)
-                .topExpenseCategories(topCategories)
-                .build();
+        return analyticsCache.get(userId, "dashboard.summary", List.of(month, year),
+                () -> summarizeMonth(userId, month, year).toSummaryResponse(TOP_CATEGORY_LIMIT));
     }
     
     /**
      * Lấy data cho biểu đồ chi tiêu theo category
      */
     public List<CategoryChartResponse> getExpenseByCategory(Long userId, Integer month, Integer year) {
-        LocalDate startOfMonth = LocalDate.of(year, month, 1);
-        LocalDate endOfMonth = startOfMonth.withDayOfMonth(startOfMonth.lengthOfMonth());
-        
-        // Lấy tổng chi tiêu để tính %
-        BigDecimal totalExpense = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.EXPENSE, startOfMonth, endOfMonth);
-        
-        // Lấy tất cả categories loại EXPENSE của user
-        List<Category> expenseCategories = categoryRepository.findByUserIdAndType(
-                userId, TransactionType.EXPENSE);
-        
-        List<CategoryChartResponse> result = new ArrayList<>();
-        
-        for (Category category : expenseCategories) {
-            BigDecimal amount = transactionRepository.sumAmountByUserIdAndCategoryIdAndDateBetween(
-                    userId, category.getId(), startOfMonth, endOfMonth);
-            
-            // Chỉ thêm nếu có chi tiêu
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
-                Double percent = 0.0;
-                if (totalExpense.compareTo(BigDecimal.ZERO) > 0) {
-                    percent = amount.divide(totalExpense, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .doubleValue();
-                }
-                
-                result.add(CategoryChartResponse.builder()
-                        .categoryId(category.getId())
-                        .categoryName(category.getName())
-                        .categoryIcon(category.getIcon())
-                        .categoryColor(category.getColor())
-                        .amount(amount)
-                        .percent(percent)
-                        .build());
-            }
-        }
-        
-        // Sắp xếp theo số tiền giảm dần
-        result.sort(Comparator.comparing(CategoryChartResponse::getAmount).reversed());
-        
-        return result;
+        return analyticsCache.get(userId, "dashboard.expense-by-category", List.of(month, year),
+                () -> summarizeMonth(userId, month, year).toExpenseChart());
     }
     
     /**
-     * Lấy xu hướng thu/chi 6 tháng gần nhất
+     * Lấy xu hướng thu/chi numberOfMonths tháng gần nhất (tính cả tháng hiện tại)
      */
     public List<MonthlyTrendResponse> getMonthlyTrend(Long userId, int numberOfMonths) {
-        List<MonthlyTrendResponse> result = new ArrayList<>();
-        LocalDate now = LocalDate.now();
+        if (numberOfMonths < 1) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Số tháng phải lớn hơn 0");
+        }
+        YearMonth to = YearMonth.now();
+        return getMonthlyTrend(userId, to.minusMonths(numberOfMonths - 1L), to);
+    }
+    
+    /**
+     * Lấy xu hướng thu/chi từ tháng from đến tháng to (tính cả hai đầu).
+     * Một câu truy vấn GROUP BY (năm, tháng) trên bảng tổng hợp, các tháng không có giao dịch được điền 0.
+     * Độ dài khoảng bị giới hạn bởi app.dashboard.trend.max-months.
+     */
+    public List<MonthlyTrendResponse> getMonthlyTrend(Long userId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Tháng bắt đầu phải trước tháng kết thúc");
+        }
+        long numberOfMonths = ChronoUnit.MONTHS.between(from, to) + 1;
+        if (numberOfMonths > maxTrendMonths) {
+            throw new AppException(ErrorCode.INVALID_INPUT,
+                    "Chỉ hỗ trợ tối đa " + maxTrendMonths + " tháng cho biểu đồ xu hướng");
+        }
+        
+        return analyticsCache.get(userId, "dashboard.monthly-trend", List.of(from, to),
+                () -> buildMonthlyTrend(userId, from, to, (int) numberOfMonths));
+    }
+    
+    // === Helper methods ===
+    
+    private List<MonthlyTrendResponse> buildMonthlyTrend(Long userId, YearMonth from, YearMonth to,
+                                                         int numberOfMonths) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/yyyy");
         
-        for (int i = numberOfMonths - 1; i >= 0; i--) {
-            LocalDate targetDate = now.minusMonths(i);
-            LocalDate startOfMonth = targetDate.withDayOfMonth(1);
-            LocalDate endOfMonth = startOfMonth.withDayOfMonth(startOfMonth.lengthOfMonth());
-            
-            BigDecimal income = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                    userId, TransactionType.INCOME, startOfMonth, endOfMonth);
-            
-            BigDecimal expense = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                    userId, TransactionType.EXPENSE, startOfMonth, endOfMonth);
+        // Dồn vào mảng theo vị trí tháng trong khoảng (số tiền theo đơn vị nhỏ nhất)
+        long[] incomes = new long[numberOfMonths];
+        long[] expenses = new long[numberOfMonths];
+        for (MonthlyTypeTotal row : categoryMonthlyTotalService.getMonthlyTypeTotals(userId, from, to)) {
+            int index = (int) from.until(YearMonth.of(row.year(), row.month()), ChronoUnit.MONTHS);
+            long[] target = row.type() == TransactionType.INCOME ? incomes : expenses;
+            target[index] = Math.addExact(target[index], Money.of(row.amount()).minorUnits());
+        }
+        
+        List<MonthlyTrendResponse> result = new ArrayList<>(numberOfMonths);
+        YearMonth month = from;
+        for (int index = 0; index < numberOfMonths; index++, month = month.plusMonths(1)) {
+            Money income = Money.ofMinorUnits(incomes[index]);
+            Money expense = Money.ofMinorUnits(expenses[index]);
             
             result.add(MonthlyTrendResponse.builder()
-                    .month(startOfMonth.format(formatter))
-                    .monthValue(startOfMonth.getMonthValue())
-                    .year(startOfMonth.getYear())
-                    .income(income)
-                    .expense(expense)
-                    .balance(income.subtract(expense))
+                    .month(month.format(formatter))
+                    .monthValue(month.getMonthValue())
+                    .year(month.getYear())
+                    .income(income.toBigDecimal())
+                    .expense(expense.toBigDecimal())
+                    .balance(income.minus(expense).toBigDecimal())
                     .build());
         }
         
         return result;
     }
     
-    // === Helper method ===
-    private List<CategoryExpenseResponse> getTopExpenseCategories(
-            Long userId, LocalDate startDate, LocalDate endDate, 
-            BigDecimal totalExpense, int limit) {
-        
-        List<Category> expenseCategories = categoryRepository.findByUserIdAndType(
-                userId, TransactionType.EXPENSE);
-        
-        List<CategoryExpenseResponse> categoryExpenses = new ArrayList<>();
-        
-        for (Category category : expenseCategories) {
-            BigDecimal amount = transactionRepository.sumAmountByUserIdAndCategoryIdAndDateBetween(
-                    userId, category.getId(), startDate, endDate);
-            
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
-                Double percent = 0.0;
-                if (totalExpense.compareTo(BigDecimal.ZERO) > 0) {
-                    percent = amount.divide(totalExpense, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .doubleValue();
-                }
-                
-                categoryExpenses.add(CategoryExpenseResponse.builder()
-                        .categoryId(category.getId())
-                        .categoryName(category.getName())
-                        .categoryIcon(category.getIcon())
-                        .categoryColor(category.getColor())
-                        .amount(amount)
-                        .percent(percent)
-                        .build());
-            }
-        }
-        
-        // Sắp xếp và lấy top
-        return categoryExpenses.stream()
-                .sorted(Comparator.comparing(CategoryExpenseResponse::getAmount).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+    /**
+     * Tổng hợp thu/chi của tháng (đọc từ bảng tổng hợp theo tháng)
+     */
+    private SpendingSummary summarizeMonth(Long userId, int month, int year) {
+        YearMonth period = YearMonth.of(year, month);
+        return categoryMonthlyTotalService.summarize(userId, period, period);
     }
 }
@@ -0,0 +1,105 @@
+package com.thotran.sochitieu.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Số tiền lưu bằng đơn vị nhỏ nhất (1/100) trong một số long, khớp với các cột DECIMAL(15, 2).
+ * 
+ * Dùng cho cộng dồn / so sánh / tính % trong bộ nhớ thay cho BigDecimal (không cấp phát mảng chữ số
+ * ở mỗi phép tính), chỉ đổi sang BigDecimal ở ranh giới DTO / repository.
+ * Cộng, trừ, nhân đều kiểm tra tràn số (ArithmeticException) thay vì cho kết quả sai.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+    
+    public static final Money ZERO = new Money(0);
+    
+    private static final int SCALE = 2;
+    
+    // |số tiền| lớn hơn giá trị này thì phép nhân 10000 khi tính % có thể tràn -> tính bằng BigDecimal
+    private static final long MAX_EXACT_PERCENT = Long.MAX_VALUE / 10_000;
+    
+    /**
+     * Đổi từ BigDecimal (tối đa 2 chữ số thập phân), null = 0 (SUM không có dòng nào)
+     * 
+     * @throws ArithmeticException Nhiều hơn 2 chữ số thập phân hoặc vượt phạm vi long
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return new Money(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+    
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+    
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+    
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+    
+    public Money negate() {
+        return ofMinorUnits(Math.negateExact(minorUnits));
+    }
+    
+    public Money times(long factor) {
+        return ofMinorUnits(Math.multiplyExact(minorUnits, factor));
+    }
+    
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+    
+    /**
+     * Phần trăm so với whole: tỷ lệ làm tròn 4 chữ số (HALF_UP) rồi x100,
+     * cho cùng kết quả với part.divide(whole, 4, HALF_UP).multiply(100)
+     * 
+     * @throws ArithmeticException whole = 0
+     */
+    public double percentOf(Money whole) {
+        if (whole.minorUnits == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (Math.abs(minorUnits) > MAX_EXACT_PERCENT
+                || minorUnits == Long.MIN_VALUE || whole.minorUnits == Long.MIN_VALUE) {
+            return toBigDecimal().divide(whole.toBigDecimal(), 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    .doubleValue();
+        }
+        
+        // Chia trên giá trị tuyệt đối, làm tròn nửa lên (ra xa số 0) rồi gắn lại dấu
+        long numerator = Math.abs(minorUnits) * 10_000;
+        long denominator = Math.abs(whole.minorUnits);
+        long basisPoints = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder >= denominator - remainder) {
+            basisPoints++;
+        }
+        if ((minorUnits < 0) != (whole.minorUnits < 0)) {
+            basisPoints = -basisPoints;
+        }
+        // Phép chia double chỉ làm tròn đúng khi basisPoints biểu diễn chính xác được (< 2^53)
+        return Math.abs(basisPoints) < 1L << 53
+                ? basisPoints / 100.0
+                : BigDecimal.valueOf(basisPoints, 2).doubleValue();
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
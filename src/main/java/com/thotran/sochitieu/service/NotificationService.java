@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -151,6 +152,27 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
     
+    /**
+     * Gửi thông báo giao dịch chi cao bất thường (so với mức chi thông thường của danh mục)
+     */
+    @Transactional
+    public void sendSpendingAnomaly(User user, String categoryName, BigDecimal amount, BigDecimal usualAmount) {
+        BigDecimal ratio = amount.divide(usualAmount, 1, RoundingMode.HALF_UP);
+        String extraData = String.format("{\"categoryName\":\"%s\",\"amount\":%s,\"usual\":%s,\"ratio\":%s}",
+                categoryName, amount, usualAmount, ratio);
+        
+        Notification notification = Notification.builder()
+                .type(NotificationType.SPENDING_ANOMALY)
+                .title("🔍 Chi tiêu bất thường: " + categoryName)
+                .message(String.format("Khoản chi %s cao gấp %s lần mức thông thường (%s) của %s.",
+                        formatCurrency(amount), ratio, formatCurrency(usualAmount), categoryName))
+                .extraData(extraData)
+                .user(user)
+                .build();
+        
+        notificationRepository.save(notification);
+    }
+    
     /**
      * Gửi thông báo giao dịch định kỳ đến hạn
      */
@@ -203,6 +225,7 @@ public class NotificationService {
             case WELCOME -> "Chào mừng";
             case BUDGET_WARNING -> "Cảnh báo ngân sách";
             case BUDGET_EXCEEDED -> "Vượt ngân sách";
+            case SPENDING_ANOMALY -> "Chi tiêu bất thường";
             case RECURRING_DUE -> "Giao dịch định kỳ";
             case RECURRING_PROCESSED -> "Giao dịch tự động";
             case REMINDER -> "Nhắc nhở";
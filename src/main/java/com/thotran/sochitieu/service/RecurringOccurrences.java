@@ -0,0 +1,51 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.entity.RecurringTransaction;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Duyệt lười các lần đến hạn của một giao dịch định kỳ trong [from, from + days),
+ * trả về vị trí ngày (0 = from) thay vì tạo đối tượng cho mỗi lần đến hạn.
+ * 
+ * Các bước nhảy dùng RecurringTransaction.calculateNextDueDate(LocalDate), giống hệt Scheduled Job,
+ * và không ghi gì vào entity. Các lần đã quá hạn nhưng chưa được job xử lý (trước from)
+ * được tính vào ngày đầu tiên.
+ */
+public final class RecurringOccurrences implements PrimitiveIterator.OfInt {
+    
+    private final RecurringTransaction recurring;
+    private final LocalDate from;
+    private final LocalDate last;
+    private LocalDate next;
+    
+    public RecurringOccurrences(RecurringTransaction recurring, LocalDate from, int days) {
+        this.recurring = recurring;
+        this.from = from;
+        
+        LocalDate horizonEnd = from.plusDays(days - 1L);
+        LocalDate endDate = recurring.getEndDate();
+        this.last = endDate != null && endDate.isBefore(horizonEnd) ? endDate : horizonEnd;
+        
+        // Job ngừng định kỳ đã hết hạn trước khi tạo thêm giao dịch
+        this.next = endDate != null && from.isAfter(endDate) ? null : recurring.getNextDueDate();
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return next != null && !next.isAfter(last);
+    }
+    
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int day = (int) Math.max(0, ChronoUnit.DAYS.between(from, next));
+        next = recurring.calculateNextDueDate(next);
+        return day;
+    }
+}
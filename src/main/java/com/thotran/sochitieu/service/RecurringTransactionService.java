@@ -3,18 +3,19 @@ package com.thotran.sochitieu.service;
 import com.thotran.sochitieu.dto.request.RecurringTransactionRequest;
 import com.thotran.sochitieu.dto.response.RecurringTransactionResponse;
 import com.thotran.sochitieu.entity.*;
+import com.thotran.sochitieu.event.TransactionChangedEvent;
 import com.thotran.sochitieu.exception.AppException;
 import com.thotran.sochitieu.exception.ErrorCode;
 import com.thotran.sochitieu.repository.RecurringTransactionRepository;
 import com.thotran.sochitieu.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service xử lý logic cho Recurring Transactions.
@@ -28,6 +29,7 @@ public class RecurringTransactionService {
     private final TransactionRepository transactionRepository;
     private final UserService userService;
     private final CategoryService categoryService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Tạo recurring transaction mới
@@ -59,20 +61,14 @@ public class RecurringTransactionService {
      * Lấy tất cả recurring transactions của user
      */
     public List<RecurringTransactionResponse> getAllByUser(Long userId) {
-        return recurringRepository.findByUserId(userId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return recurringRepository.findResponsesByUserId(userId);
     }
     
     /**
      * Lấy theo trạng thái active
      */
     public List<RecurringTransactionResponse> getByActive(Long userId, Boolean isActive) {
-        return recurringRepository.findByUserIdAndIsActive(userId, isActive)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return recurringRepository.findResponsesByUserIdAndIsActive(userId, isActive);
     }
     
     /**
@@ -82,11 +78,7 @@ public class RecurringTransactionService {
         LocalDate startOfMonth = LocalDate.of(year, month, 1);
         LocalDate endOfMonth = startOfMonth.withDayOfMonth(startOfMonth.lengthOfMonth());
         
-        return recurringRepository
-                .findByUserIdAndIsActiveTrueAndNextDueDateBetween(userId, startOfMonth, endOfMonth)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return recurringRepository.findResponsesDueBetween(userId, startOfMonth, endOfMonth);
     }
     
     /**
@@ -183,6 +175,7 @@ public class RecurringTransactionService {
                     .build();
             
             transactionRepository.save(transaction);
+            eventPublisher.publishEvent(TransactionChangedEvent.created(transaction));
             
             // Cập nhật nextDueDate
             recurring.setNextDueDate(recurring.calculateNextDueDate());
@@ -205,7 +198,7 @@ public class RecurringTransactionService {
                 .type(recurring.getType())
                 .description(recurring.getDescription())
                 .frequency(recurring.getFrequency())
-                .frequencyDisplay(getFrequencyDisplay(recurring.getFrequency()))
+                .frequencyDisplay(recurring.getFrequency().getDisplayName())
                 .startDate(recurring.getStartDate())
                 .endDate(recurring.getEndDate())
                 .nextDueDate(recurring.getNextDueDate())
@@ -216,13 +209,4 @@ public class RecurringTransactionService {
                 .categoryColor(recurring.getCategory().getColor())
                 .build();
     }
-    
-    private String getFrequencyDisplay(RecurringFrequency frequency) {
-        return switch (frequency) {
-            case DAILY -> "Hàng ngày";
-            case WEEKLY -> "Hàng tuần";
-            case MONTHLY -> "Hàng tháng";
-            case YEARLY -> "Hàng năm";
-        };
-    }
 }
@@ -0,0 +1,63 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.request.PeriodGranularity;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Một kỳ thống kê gồm các tháng liên tiếp [firstMonth, lastMonth] (tháng, quý hoặc năm).
+ * 
+ * @param label Nhãn hiển thị: "MM/yyyy", "Qn/yyyy" hoặc "yyyy"
+ */
+public record ReportPeriod(String label, YearMonth firstMonth, YearMonth lastMonth) {
+    
+    /**
+     * Đọc kỳ từ chuỗi theo độ dài kỳ: "2024-05" (MONTH), "2024-Q2" (QUARTER), "2024" (YEAR)
+     */
+    public static ReportPeriod parse(PeriodGranularity granularity, String value) {
+        try {
+            return switch (granularity) {
+                case MONTH -> {
+                    YearMonth month = YearMonth.parse(value.trim());
+                    yield new ReportPeriod(String.format("%02d/%d", month.getMonthValue(), month.getYear()),
+                            month, month);
+                }
+                case QUARTER -> {
+                    String[] parts = value.trim().toUpperCase().split("-Q");
+                    if (parts.length != 2) {
+                        throw new AppException(ErrorCode.INVALID_INPUT, "Quý không hợp lệ: " + value);
+                    }
+                    int year = Integer.parseInt(parts[0]);
+                    int quarter = Integer.parseInt(parts[1]);
+                    if (quarter < 1 || quarter > 4) {
+                        throw new AppException(ErrorCode.INVALID_INPUT, "Quý không hợp lệ: " + value);
+                    }
+                    YearMonth first = YearMonth.of(year, quarter * 3 - 2);
+                    yield new ReportPeriod("Q" + quarter + "/" + year, first, first.plusMonths(2));
+                }
+                case YEAR -> {
+                    int year = Integer.parseInt(value.trim());
+                    yield new ReportPeriod(String.valueOf(year), YearMonth.of(year, 1), YearMonth.of(year, 12));
+                }
+            };
+        } catch (DateTimeException | NumberFormatException ex) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Kỳ thống kê không hợp lệ: " + value);
+        }
+    }
+    
+    /**
+     * Các tháng thuộc kỳ
+     */
+    public List<YearMonth> months() {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+}
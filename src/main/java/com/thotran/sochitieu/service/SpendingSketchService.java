@@ -0,0 +1,208 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.response.CategorySpendingStatsResponse;
+import com.thotran.sochitieu.entity.Category;
+import com.thotran.sochitieu.entity.CategorySpendingSketch;
+import com.thotran.sochitieu.entity.CategorySpendingSketchId;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.event.TransactionChangedEvent;
+import com.thotran.sochitieu.event.TransactionChanges;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.repository.CategoryRepository;
+import com.thotran.sochitieu.repository.CategorySpendingSketchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service duy trì thống kê phân phối chi tiêu theo (user, danh mục) và phát hiện giao dịch chi bất thường.
+ * 
+ * Mỗi giao dịch chi mới được đưa vào t-digest và EWMA của danh mục ngay trong DB transaction ghi giao dịch
+ * (listener đồng bộ, dòng thống kê bị khóa khi cập nhật). Trước khi cập nhật, số tiền được so với
+ * thống kê hiện có: vượt median nhiều lần và lệch xa trung bình EWMA thì gửi thông báo.
+ * 
+ * Thống kê chỉ cộng thêm (t-digest và EWMA không trừ ngược được): sửa số tiền / danh mục thì giá trị mới
+ * được ghi nhận nhưng giá trị cũ vẫn còn, xóa giao dịch không làm thay đổi thống kê.
+ * Ảnh hưởng của các giá trị cũ nhỏ dần theo số giao dịch mới.
+ */
+@Service
+@Slf4j
+public class SpendingSketchService {
+    
+    // Thứ tự khóa dòng cố định (user, danh mục) để các transaction đồng thời không deadlock
+    private static final Comparator<CategorySpendingSketchId> WRITE_ORDER = Comparator
+            .comparing(CategorySpendingSketchId::getUserId)
+            .thenComparing(CategorySpendingSketchId::getCategoryId);
+    
+    private final CategorySpendingSketchRepository sketchRepository;
+    private final CategoryRepository categoryRepository;
+    private final NotificationService notificationService;
+    private final AnalyticsCache analyticsCache;
+    private final double compression;
+    private final double ewmaAlpha;
+    private final long minSamples;
+    private final double medianMultiplier;
+    private final double zScore;
+    
+    public SpendingSketchService(CategorySpendingSketchRepository sketchRepository,
+                                 CategoryRepository categoryRepository,
+                                 NotificationService notificationService,
+                                 AnalyticsCache analyticsCache,
+                                 @Value("${app.spending-stats.compression:100}") double compression,
+                                 @Value("${app.spending-stats.ewma-alpha:0.1}") double ewmaAlpha,
+                                 @Value("${app.spending-stats.anomaly.min-samples:10}") long minSamples,
+                                 @Value("${app.spending-stats.anomaly.median-multiplier:3}") double medianMultiplier,
+                                 @Value("${app.spending-stats.anomaly.z-score:3}") double zScore) {
+        this.sketchRepository = sketchRepository;
+        this.categoryRepository = categoryRepository;
+        this.notificationService = notificationService;
+        this.analyticsCache = analyticsCache;
+        this.compression = compression;
+        this.ewmaAlpha = ewmaAlpha;
+        this.minSamples = minSamples;
+        this.medianMultiplier = medianMultiplier;
+        this.zScore = zScore;
+    }
+    
+    /**
+     * Đưa các giao dịch chi mới (hoặc vừa sửa số tiền / danh mục) vào thống kê.
+     * Các giá trị được gom theo (user, danh mục): mỗi dòng thống kê chỉ bị khóa, đọc và ghi một lần mỗi sự kiện.
+     * Chỉ giao dịch nhập lẻ (một giao dịch mỗi lần) mới được cảnh báo bất thường,
+     * import / tạo hàng loạt / sửa chỉ cập nhật thống kê.
+     */
+    @EventListener
+    public void onTransactionChanged(TransactionChanges event) {
+        Map<Long, TransactionSnapshot> before = new HashMap<>();
+        for (TransactionSnapshot snapshot : event.removed()) {
+            before.put(snapshot.transactionId(), snapshot);
+        }
+        
+        Map<CategorySpendingSketchId, List<TransactionSnapshot>> samples = new TreeMap<>(WRITE_ORDER);
+        for (TransactionSnapshot snapshot : event.added()) {
+            if (snapshot.type() == TransactionType.EXPENSE && !isUnchanged(before.get(snapshot.transactionId()), snapshot)) {
+                samples.computeIfAbsent(new CategorySpendingSketchId(snapshot.userId(), snapshot.categoryId()),
+                        id -> new ArrayList<>()).add(snapshot);
+            }
+        }
+        
+        boolean notifyAnomaly = event instanceof TransactionChangedEvent
+                && before.isEmpty() && event.added().size() == 1;
+        samples.forEach((id, snapshots) -> record(id, snapshots, notifyAnomaly));
+    }
+    
+    /**
+     * Phân phối số tiền chi theo từng danh mục của user (median, p90, p99, trung bình gần đây)
+     */
+    public List<CategorySpendingStatsResponse> getCategoryStats(Long userId) {
+        return analyticsCache.get(userId, "statistics.category-distribution", List.of(),
+                () -> buildCategoryStats(userId));
+    }
+    
+    // === Helper methods ===
+    
+    /**
+     * Thêm các giá trị của một (user, danh mục): khóa dòng và đọc / ghi digest một lần cho cả nhóm
+     */
+    private void record(CategorySpendingSketchId id, List<TransactionSnapshot> snapshots, boolean notifyAnomaly) {
+        sketchRepository.insertIfAbsent(id, TDigest.create(compression).toBytes());
+        CategorySpendingSketch sketch = sketchRepository.findForUpdate(id).orElseThrow();
+        TDigest digest = TDigest.fromBytes(sketch.getDigest());
+        
+        for (TransactionSnapshot snapshot : snapshots) {
+            double amount = snapshot.amount().doubleValue();
+            
+            if (notifyAnomaly && isAnomalous(sketch, digest, amount)) {
+                notifyAnomaly(snapshot, digest.quantile(0.5));
+            }
+            
+            // EWMA: mean += α·Δ, variance = (1 - α)(variance + Δ·α·Δ)
+            if (sketch.getSampleCount() == 0) {
+                sketch.setEwmaMean(amount);
+                sketch.setEwmaVariance(0.0);
+            } else {
+                double diff = amount - sketch.getEwmaMean();
+                double increment = ewmaAlpha * diff;
+                sketch.setEwmaMean(sketch.getEwmaMean() + increment);
+                sketch.setEwmaVariance((1 - ewmaAlpha) * (sketch.getEwmaVariance() + diff * increment));
+            }
+            
+            digest.add(amount);
+            sketch.setSampleCount(sketch.getSampleCount() + 1);
+        }
+        
+        sketch.setDigest(digest.toBytes());
+    }
+    
+    /**
+     * Sửa giao dịch mà số tiền, danh mục và loại giữ nguyên (VD: chỉ sửa mô tả) thì không ghi nhận lại
+     */
+    private static boolean isUnchanged(TransactionSnapshot before, TransactionSnapshot after) {
+        return before != null
+                && before.type() == after.type()
+                && Objects.equals(before.categoryId(), after.categoryId())
+                && before.amount().compareTo(after.amount()) == 0;
+    }
+    
+    /**
+     * Bất thường khi đủ mẫu, số tiền >= medianMultiplier × median và lệch >= zScore độ lệch chuẩn EWMA
+     */
+    private boolean isAnomalous(CategorySpendingSketch sketch, TDigest digest, double amount) {
+        if (sketch.getSampleCount() < minSamples) {
+            return false;
+        }
+        double median = digest.quantile(0.5);
+        double stdDev = Math.sqrt(sketch.getEwmaVariance());
+        return median > 0
+                && amount >= medianMultiplier * median
+                && (stdDev == 0 || (amount - sketch.getEwmaMean()) / stdDev >= zScore);
+    }
+    
+    private void notifyAnomaly(TransactionSnapshot snapshot, double median) {
+        categoryRepository.findByIdAndUserId(snapshot.categoryId(), snapshot.userId())
+                .ifPresent(category -> notificationService.sendSpendingAnomaly(
+                        category.getUser(), category.getName(), snapshot.amount(), toAmount(median)));
+    }
+    
+    private List<CategorySpendingStatsResponse> buildCategoryStats(Long userId) {
+        Map<Long, Category> categories = categoryRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        
+        return sketchRepository.findByIdUserId(userId).stream()
+                .filter(sketch -> sketch.getSampleCount() > 0 && categories.containsKey(sketch.getId().getCategoryId()))
+                .map(sketch -> {
+                    Category category = categories.get(sketch.getId().getCategoryId());
+                    TDigest digest = TDigest.fromBytes(sketch.getDigest());
+                    return CategorySpendingStatsResponse.builder()
+                            .categoryId(category.getId())
+                            .categoryName(category.getName())
+                            .categoryIcon(category.getIcon())
+                            .categoryColor(category.getColor())
+                            .sampleCount(sketch.getSampleCount())
+                            .median(toAmount(digest.quantile(0.5)))
+                            .p90(toAmount(digest.quantile(0.9)))
+                            .p99(toAmount(digest.quantile(0.99)))
+                            .recentAverage(toAmount(sketch.getEwmaMean()))
+                            .recentStdDev(toAmount(Math.sqrt(sketch.getEwmaVariance())))
+                            .build();
+                })
+                .sorted(Comparator.comparing(CategorySpendingStatsResponse::getSampleCount).reversed())
+                .toList();
+    }
+    
+    private static BigDecimal toAmount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,175 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.response.CategoryChartResponse;
+import com.thotran.sochitieu.dto.response.DashboardSummaryResponse;
+import com.thotran.sochitieu.dto.response.DashboardSummaryResponse.CategoryExpenseResponse;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.repository.CategoryTypeTotal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tổng hợp thu/chi của một kỳ, tính toàn bộ trong bộ nhớ từ các dòng (loại, danh mục) đã GROUP BY.
+ * Một lần truy vấn đủ cho tổng thu, tổng chi, số giao dịch, % và top danh mục chi tiêu.
+ * Số tiền được cộng dồn / tính % bằng Money (long), chỉ đổi sang BigDecimal khi dựng response.
+ */
+public final class SpendingSummary {
+    
+    private final Money totalIncome;
+    private final Money totalExpense;
+    private final long transactionCount;
+    
+    // Các dòng (loại, danh mục) có số tiền > 0, sắp xếp theo số tiền giảm dần
+    private final List<Row> categories;
+    
+    // Các danh mục có chi tiêu, sắp xếp theo số tiền giảm dần
+    private final List<Row> expenseCategories;
+    
+    private SpendingSummary(Money totalIncome, Money totalExpense, long transactionCount, List<Row> categories) {
+        this.totalIncome = totalIncome;
+        this.totalExpense = totalExpense;
+        this.transactionCount = transactionCount;
+        this.categories = categories;
+        this.expenseCategories = categories.stream()
+                .filter(row -> row.type() == TransactionType.EXPENSE)
+                .toList();
+    }
+    
+    /**
+     * Tổng hợp từ các dòng projection của repository
+     */
+    public static SpendingSummary of(List<CategoryTypeTotal> totals) {
+        List<Row> rows = new ArrayList<>(totals.size());
+        for (CategoryTypeTotal total : totals) {
+            rows.add(new Row(total.type(), total.categoryId(), total.categoryName(), total.categoryIcon(),
+                    total.categoryColor(), Money.of(total.amount()), total.count()));
+        }
+        return ofRows(rows);
+    }
+    
+    /**
+     * Tổng hợp từ các dòng đã tính sẵn bằng Money
+     */
+    public static SpendingSummary ofRows(List<Row> rows) {
+        long income = 0;
+        long expense = 0;
+        long count = 0;
+        List<Row> categories = new ArrayList<>();
+        
+        for (Row row : rows) {
+            count += row.count();
+            if (row.type() == TransactionType.INCOME) {
+                income = Math.addExact(income, row.amount().minorUnits());
+            } else {
+                expense = Math.addExact(expense, row.amount().minorUnits());
+            }
+            if (row.amount().signum() > 0) {
+                categories.add(row);
+            }
+        }
+        
+        categories.sort(Comparator.comparing(Row::amount).reversed());
+        return new SpendingSummary(Money.ofMinorUnits(income), Money.ofMinorUnits(expense), count, categories);
+    }
+    
+    public Money getTotalIncome() {
+        return totalIncome;
+    }
+    
+    public Money getTotalExpense() {
+        return totalExpense;
+    }
+    
+    public Money getBalance() {
+        return totalIncome.minus(totalExpense);
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    /**
+     * Các danh mục có chi tiêu, sắp xếp theo số tiền giảm dần
+     */
+    public List<Row> getExpenseCategories() {
+        return expenseCategories;
+    }
+    
+    /**
+     * Tỷ lệ tiết kiệm (%) = số dư / tổng thu
+     */
+    public Double getSavingsRate() {
+        if (totalIncome.signum() <= 0) {
+            return 0.0;
+        }
+        return getBalance().percentOf(totalIncome);
+    }
+    
+    /**
+     * Response tổng quan với top N danh mục chi tiêu nhiều nhất
+     */
+    public DashboardSummaryResponse toSummaryResponse(int topLimit) {
+        List<CategoryExpenseResponse> topCategories = expenseCategories.stream()
+                .limit(topLimit)
+                .map(row -> CategoryExpenseResponse.builder()
+                        .categoryId(row.categoryId())
+                        .categoryName(row.categoryName())
+                        .categoryIcon(row.categoryIcon())
+                        .categoryColor(row.categoryColor())
+                        .amount(row.amount().toBigDecimal())
+                        .percent(expensePercent(row.amount()))
+                        .build())
+                .toList();
+        
+        return DashboardSummaryResponse.builder()
+                .totalIncome(totalIncome.toBigDecimal())
+                .totalExpense(totalExpense.toBigDecimal())
+                .balance(getBalance().toBigDecimal())
+                .savingsRate(getSavingsRate())
+                .transactionCount(transactionCount)
+                .topExpenseCategories(topCategories)
+                .build();
+    }
+    
+    /**
+     * Dữ liệu biểu đồ chi tiêu theo danh mục (% so với tổng chi)
+     */
+    public List<CategoryChartResponse> toExpenseChart() {
+        return toChart(expenseCategories);
+    }
+    
+    /**
+     * Dữ liệu biểu đồ theo tất cả danh mục có giao dịch (thu và chi), % so với tổng chi
+     */
+    public List<CategoryChartResponse> toCategoryChart() {
+        return toChart(categories);
+    }
+    
+    // === Helper methods ===
+    
+    private List<CategoryChartResponse> toChart(List<Row> rows) {
+        return rows.stream()
+                .map(row -> CategoryChartResponse.builder()
+                        .categoryId(row.categoryId())
+                        .categoryName(row.categoryName())
+                        .categoryIcon(row.categoryIcon())
+                        .categoryColor(row.categoryColor())
+                        .amount(row.amount().toBigDecimal())
+                        .percent(expensePercent(row.amount()))
+                        .build())
+                .toList();
+    }
+    
+    private Double expensePercent(Money amount) {
+        return totalExpense.signum() > 0 ? amount.percentOf(totalExpense) : 0.0;
+    }
+    
+    /**
+     * Một dòng tổng hợp theo (loại, danh mục) với số tiền dạng Money
+     */
+    public record Row(TransactionType type, Long categoryId, String categoryName,
+                      String categoryIcon, String categoryColor, Money amount, long count) {
+    }
+}
@@ -1,76 +1,51 @@
 package com.thotran.sochitieu.service;
 
+import com.thotran.sochitieu.dto.request.PeriodGranularity;
 import com.thotran.sochitieu.dto.response.CategoryChartResponse;
 import com.thotran.sochitieu.dto.response.DailyStatisticsResponse;
 import com.thotran.sochitieu.dto.response.MonthComparisonResponse;
-import com.thotran.sochitieu.entity.Category;
-import com.thotran.sochitieu.entity.Transaction;
-import com.thotran.sochitieu.entity.TransactionType;
-import com.thotran.sochitieu.repository.CategoryRepository;
-import com.thotran.sochitieu.repository.TransactionRepository;
+import com.thotran.sochitieu.dto.response.PeriodComparisonResponse;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+import com.thotran.sochitieu.repository.DailyTotal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service xử lý logic cho Statistics/Reports.
+ * Kết quả được cache theo user (AnalyticsCache), tự làm mới khi dữ liệu của user thay đổi.
  */
 @Service
 @RequiredArgsConstructor
 public class StatisticsService {
     
-    private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryMonthlyTotalService categoryMonthlyTotalService;
+    private final CategoryDailyTotalService categoryDailyTotalService;
+    private final AnalyticsCache analyticsCache;
+    
+    // Số kỳ tối đa trong một lần so sánh
+    @Value("${app.statistics.comparison.max-periods:60}")
+    private int maxComparisonPeriods;
     
     /**
-     * Thống kê chi tiêu theo category trong khoảng thời gian
+     * Thống kê chi tiêu theo category trong khoảng thời gian.
+     * Đọc tổng lũy kế theo ngày (đầu và cuối khoảng) cho mỗi danh mục, không phụ thuộc độ dài khoảng.
      */
     public List<CategoryChartResponse> getByCategory(
             Long userId, LocalDate startDate, LocalDate endDate) {
-        
-        // Tính tổng chi tiêu để tính %
-        BigDecimal totalExpense = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.EXPENSE, startDate, endDate);
-        
-        // Lấy tất cả categories của user
-        List<Category> categories = categoryRepository.findByUserId(userId);
-        
-        List<CategoryChartResponse> result = new ArrayList<>();
-        
-        for (Category category : categories) {
-            BigDecimal amount = transactionRepository.sumAmountByUserIdAndCategoryIdAndDateBetween(
-                    userId, category.getId(), startDate, endDate);
-            
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
-                Double percent = 0.0;
-                if (totalExpense.compareTo(BigDecimal.ZERO) > 0) {
-                    percent = amount.divide(totalExpense, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .doubleValue();
-                }
-                
-                result.add(CategoryChartResponse.builder()
-                        .categoryId(category.getId())
-                        .categoryName(category.getName())
-                        .categoryIcon(category.getIcon())
-                        .categoryColor(category.getColor())
-                        .amount(amount)
-                        .percent(percent)
-                        .build());
-            }
+        if (startDate.isAfter(endDate)) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Ngày bắt đầu phải trước ngày kết thúc");
         }
-        
-        result.sort(Comparator.comparing(CategoryChartResponse::getAmount).reversed());
-        return result;
+        return analyticsCache.get(userId, "statistics.by-category", List.of(startDate, endDate),
+                () -> categoryDailyTotalService.summarize(userId, startDate, endDate).toCategoryChart());
     }
     
     /**
@@ -79,105 +54,171 @@ public class StatisticsService {
     public List<DailyStatisticsResponse> getDailyStats(Long userId, Integer month, Integer year) {
         LocalDate startOfMonth = LocalDate.of(year, month, 1);
         LocalDate endOfMonth = startOfMonth.withDayOfMonth(startOfMonth.lengthOfMonth());
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        
-        // Lấy tất cả giao dịch trong tháng
-        List<Transaction> transactions = transactionRepository
-                .findByUserIdAndTransactionDateBetweenOrderByTransactionDateDesc(
-                        userId, startOfMonth, endOfMonth);
+        return analyticsCache.get(userId, "statistics.daily", List.of(startOfMonth, endOfMonth),
+                () -> buildDailyStats(userId, startOfMonth, endOfMonth));
+    }
+    
+    /**
+     * Thống kê theo ngày cho cả năm (calendar view dạng năm, 365/366 ngày)
+     */
+    public List<DailyStatisticsResponse> getYearlyDailyStats(Long userId, Integer year) {
+        LocalDate startOfYear = LocalDate.of(year, 1, 1);
+        LocalDate endOfYear = startOfYear.withDayOfYear(startOfYear.lengthOfYear());
+        return analyticsCache.get(userId, "statistics.daily", List.of(startOfYear, endOfYear),
+                () -> buildDailyStats(userId, startOfYear, endOfYear));
+    }
+    
+    /**
+     * So sánh 2 tháng
+     */
+    public MonthComparisonResponse compareMonths(
+            Long userId, Integer month1, Integer year1, Integer month2, Integer year2) {
+        return analyticsCache.get(userId, "statistics.compare-months", List.of(month1, year1, month2, year2),
+                () -> buildMonthComparison(userId, month1, year1, month2, year2));
+    }
+    
+    /**
+     * So sánh nhiều kỳ (tháng / quý / năm, danh sách tùy ý), kỳ đầu tiên là mốc.
+     * VD: tháng này và 12 tháng trước, hoặc cùng tháng của 5 năm trước.
+     * Một câu truy vấn trên bảng tổng hợp theo tháng cho mọi kỳ, chênh lệch tính trong bộ nhớ.
+     * 
+     * @param breakdown true = kèm chi tiết theo danh mục của từng kỳ
+     */
+    public PeriodComparisonResponse comparePeriods(Long userId, PeriodGranularity granularity,
+                                                   List<String> periods, boolean breakdown) {
+        if (periods == null || periods.isEmpty()) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Cần ít nhất một kỳ để so sánh");
+        }
+        if (periods.size() > maxComparisonPeriods) {
+            throw new AppException(ErrorCode.INVALID_INPUT,
+                    "Chỉ hỗ trợ so sánh tối đa " + maxComparisonPeriods + " kỳ");
+        }
+        List<ReportPeriod> reportPeriods = periods.stream()
+                .map(value -> ReportPeriod.parse(granularity, value))
+                .toList();
         
-        // Group theo ngày
-        Map<LocalDate, List<Transaction>> groupedByDate = transactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getTransactionDate));
+        return analyticsCache.get(userId, "statistics.compare-periods", List.of(granularity, reportPeriods, breakdown),
+                () -> buildPeriodComparison(userId, granularity, reportPeriods, breakdown));
+    }
+    
+    // === Helper methods ===
+    
+    private PeriodComparisonResponse buildPeriodComparison(Long userId, PeriodGranularity granularity,
+                                                           List<ReportPeriod> periods, boolean breakdown) {
+        List<SpendingSummary> summaries = categoryMonthlyTotalService.summarizePeriods(userId, periods);
+        SpendingSummary baseline = summaries.get(0);
+        
+        List<PeriodComparisonResponse.PeriodStatistics> statistics = new ArrayList<>(periods.size());
+        for (int index = 0; index < periods.size(); index++) {
+            SpendingSummary summary = summaries.get(index);
+            statistics.add(PeriodComparisonResponse.PeriodStatistics.builder()
+                    .period(periods.get(index).label())
+                    .income(summary.getTotalIncome().toBigDecimal())
+                    .expense(summary.getTotalExpense().toBigDecimal())
+                    .balance(summary.getBalance().toBigDecimal())
+                    .transactionCount(summary.getTransactionCount())
+                    .incomeDiff(summary.getTotalIncome().minus(baseline.getTotalIncome()).toBigDecimal())
+                    .expenseDiff(summary.getTotalExpense().minus(baseline.getTotalExpense()).toBigDecimal())
+                    .balanceDiff(summary.getBalance().minus(baseline.getBalance()).toBigDecimal())
+                    .incomeChangePercent(calculateChangePercent(baseline.getTotalIncome(), summary.getTotalIncome()))
+                    .expenseChangePercent(calculateChangePercent(baseline.getTotalExpense(), summary.getTotalExpense()))
+                    .categories(breakdown ? summary.toCategoryChart() : null)
+                    .build());
+        }
         
-        List<DailyStatisticsResponse> result = new ArrayList<>();
+        return PeriodComparisonResponse.builder()
+                .granularity(granularity)
+                .baseline(periods.get(0).label())
+                .periods(statistics)
+                .build();
+    }
+    
+    /**
+     * Một câu GROUP BY theo ngày trên bảng tổng hợp theo ngày, dồn vào mảng theo vị trí ngày
+     * trong khoảng (số tiền theo đơn vị nhỏ nhất); các ngày không có giao dịch giữ giá trị 0.
+     */
+    private List<DailyStatisticsResponse> buildDailyStats(Long userId, LocalDate startDate, LocalDate endDate) {
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long[] incomes = new long[days];
+        long[] expenses = new long[days];
+        long[] counts = new long[days];
+        
+        for (DailyTotal row : categoryDailyTotalService.getDailyTotals(userId, startDate, endDate)) {
+            int index = (int) ChronoUnit.DAYS.between(startDate, row.date());
+            incomes[index] = Money.of(row.income()).minorUnits();
+            expenses[index] = Money.of(row.expense()).minorUnits();
+            counts[index] = row.count();
+        }
         
-        // Tạo response cho từng ngày trong tháng
-        for (int day = 1; day <= endOfMonth.getDayOfMonth(); day++) {
-            LocalDate date = LocalDate.of(year, month, day);
-            List<Transaction> dayTransactions = groupedByDate.getOrDefault(date, new ArrayList<>());
-            
-            BigDecimal income = dayTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.INCOME)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            BigDecimal expense = dayTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.EXPENSE)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
+        List<DailyStatisticsResponse> result = new ArrayList<>(days);
+        LocalDate date = startDate;
+        for (int index = 0; index < days; index++, date = date.plusDays(1)) {
             result.add(DailyStatisticsResponse.builder()
-                    .day(day)
-                    .date(date.format(formatter))
-                    .income(income)
-                    .expense(expense)
-                    .transactionCount((long) dayTransactions.size())
+                    .day(date.getDayOfMonth())
+                    .date(date.toString())      // ISO: yyyy-MM-dd
+                    .income(Money.ofMinorUnits(incomes[index]).toBigDecimal())
+                    .expense(Money.ofMinorUnits(expenses[index]).toBigDecimal())
+                    .transactionCount(counts[index])
                     .build());
         }
         
         return result;
     }
     
-    /**
-     * So sánh 2 tháng
-     */
-    public MonthComparisonResponse compareMonths(
-            Long userId, Integer month1, Integer year1, Integer month2, Integer year2) {
+    private MonthComparisonResponse buildMonthComparison(
+            Long userId, int month1, int year1, int month2, int year2) {
         
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/yyyy");
         
+        // Cả 2 tháng trong một câu truy vấn
+        YearMonth period1 = YearMonth.of(year1, month1);
+        YearMonth period2 = YearMonth.of(year2, month2);
+        List<SpendingSummary> summaries = categoryMonthlyTotalService.summarizePeriods(userId, List.of(
+                new ReportPeriod(period1.format(formatter), period1, period1),
+                new ReportPeriod(period2.format(formatter), period2, period2)));
+        
         // Tháng 1
-        LocalDate start1 = LocalDate.of(year1, month1, 1);
-        LocalDate end1 = start1.withDayOfMonth(start1.lengthOfMonth());
-        BigDecimal income1 = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.INCOME, start1, end1);
-        BigDecimal expense1 = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.EXPENSE, start1, end1);
+        SpendingSummary summary1 = summaries.get(0);
+        Money income1 = summary1.getTotalIncome();
+        Money expense1 = summary1.getTotalExpense();
         
         // Tháng 2
-        LocalDate start2 = LocalDate.of(year2, month2, 1);
-        LocalDate end2 = start2.withDayOfMonth(start2.lengthOfMonth());
-        BigDecimal income2 = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.INCOME, start2, end2);
-        BigDecimal expense2 = transactionRepository.sumAmountByUserIdAndTypeAndDateBetween(
-                userId, TransactionType.EXPENSE, start2, end2);
+        SpendingSummary summary2 = summaries.get(1);
+        Money income2 = summary2.getTotalIncome();
+        Money expense2 = summary2.getTotalExpense();
         
         // Tính chênh lệch
-        BigDecimal incomeDiff = income2.subtract(income1);
-        BigDecimal expenseDiff = expense2.subtract(expense1);
-        BigDecimal balance1 = income1.subtract(expense1);
-        BigDecimal balance2 = income2.subtract(expense2);
-        BigDecimal balanceDiff = balance2.subtract(balance1);
+        Money incomeDiff = income2.minus(income1);
+        Money expenseDiff = expense2.minus(expense1);
+        Money balance1 = income1.minus(expense1);
+        Money balance2 = income2.minus(expense2);
+        Money balanceDiff = balance2.minus(balance1);
         
         // Tính % thay đổi
         Double incomeChangePercent = calculateChangePercent(income1, income2);
         Double expenseChangePercent = calculateChangePercent(expense1, expense2);
         
         return MonthComparisonResponse.builder()
-                .month1(start1.format(formatter))
-                .income1(income1)
-                .expense1(expense1)
-                .balance1(balance1)
-                .month2(start2.format(formatter))
-                .income2(income2)
-                .expense2(expense2)
-                .balance2(balance2)
-                .incomeDiff(incomeDiff)
-                .expenseDiff(expenseDiff)
-                .balanceDiff(balanceDiff)
+                .month1(period1.format(formatter))
+                .income1(income1.toBigDecimal())
+                .expense1(expense1.toBigDecimal())
+                .balance1(balance1.toBigDecimal())
+                .month2(period2.format(formatter))
+                .income2(income2.toBigDecimal())
+                .expense2(expense2.toBigDecimal())
+                .balance2(balance2.toBigDecimal())
+                .incomeDiff(incomeDiff.toBigDecimal())
+                .expenseDiff(expenseDiff.toBigDecimal())
+                .balanceDiff(balanceDiff.toBigDecimal())
                 .incomeChangePercent(incomeChangePercent)
                 .expenseChangePercent(expenseChangePercent)
                 .build();
     }
     
-    private Double calculateChangePercent(BigDecimal oldValue, BigDecimal newValue) {
-        if (oldValue.compareTo(BigDecimal.ZERO) == 0) {
-            return newValue.compareTo(BigDecimal.ZERO) > 0 ? 100.0 : 0.0;
+    private Double calculateChangePercent(Money oldValue, Money newValue) {
+        if (oldValue.signum() == 0) {
+            return newValue.signum() > 0 ? 100.0 : 0.0;
         }
-        return newValue.subtract(oldValue)
-                .divide(oldValue, 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                .doubleValue();
+        return newValue.minus(oldValue).percentOf(oldValue);
     }
 }
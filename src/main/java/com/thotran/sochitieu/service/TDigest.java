@@ -0,0 +1,176 @@
+package com.thotran.sochitieu.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * t-digest (dạng merging) để ước lượng phân vị (median, p90...) của một luồng giá trị
+ * với bộ nhớ cố định, không cần giữ lại toàn bộ lịch sử.
+ * 
+ * Các giá trị được gom thành các centroid (trung bình, trọng số); centroid ở hai đầu phân phối
+ * được giữ nhỏ (hàm tỷ lệ k1 = δ/2π · asin(2q - 1)) nên phân vị ở đuôi vẫn chính xác.
+ * Số centroid bị chặn theo compression, dạng nhị phân chỉ vài KB.
+ */
+public final class TDigest {
+    
+    private static final byte FORMAT_VERSION = 1;
+    
+    private final double compression;
+    private final List<Centroid> centroids = new ArrayList<>();
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    
+    // Số giá trị mới thêm chưa được gộp
+    private int unmerged;
+    
+    private TDigest(double compression) {
+        this.compression = compression;
+    }
+    
+    public static TDigest create(double compression) {
+        return new TDigest(compression);
+    }
+    
+    /**
+     * Đọc lại digest từ dạng nhị phân (toBytes)
+     */
+    public static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported t-digest format: " + version);
+        }
+        
+        TDigest digest = new TDigest(buffer.getDouble());
+        digest.min = buffer.getDouble();
+        digest.max = buffer.getDouble();
+        int size = buffer.getInt();
+        for (int index = 0; index < size; index++) {
+            Centroid centroid = new Centroid(buffer.getDouble(), buffer.getLong());
+            digest.centroids.add(centroid);
+            digest.count += centroid.weight;
+        }
+        return digest;
+    }
+    
+    public void add(double value) {
+        centroids.add(new Centroid(value, 1));
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        
+        if (++unmerged >= compression) {
+            compress();
+        }
+    }
+    
+    public long count() {
+        return count;
+    }
+    
+    /**
+     * Giá trị ước lượng tại phân vị q (0..1), NaN nếu chưa có giá trị nào
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be in [0, 1]: " + q);
+        }
+        compress();
+        if (centroids.isEmpty()) {
+            return Double.NaN;
+        }
+        if (centroids.size() == 1) {
+            return centroids.get(0).mean;
+        }
+        
+        double index = q * count;
+        Centroid first = centroids.get(0);
+        if (index < first.weight / 2.0) {
+            return min + (first.mean - min) * index / (first.weight / 2.0);
+        }
+        
+        // Nội suy tuyến tính giữa tâm của hai centroid liền kề
+        double cumulative = first.weight / 2.0;
+        for (int position = 0; position < centroids.size() - 1; position++) {
+            Centroid left = centroids.get(position);
+            Centroid right = centroids.get(position + 1);
+            double gap = (left.weight + right.weight) / 2.0;
+            if (index < cumulative + gap) {
+                return left.mean + (right.mean - left.mean) * (index - cumulative) / gap;
+            }
+            cumulative += gap;
+        }
+        
+        Centroid last = centroids.get(centroids.size() - 1);
+        double tail = Math.min(1.0, (index - cumulative) / (last.weight / 2.0));
+        return last.mean + (max - last.mean) * tail;
+    }
+    
+    /**
+     * Dạng nhị phân gọn: version, compression, min, max, số centroid, rồi (mean, weight) từng centroid
+     */
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 * 3 + 4 + centroids.size() * 16);
+        buffer.put(FORMAT_VERSION);
+        buffer.putDouble(compression);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        buffer.putInt(centroids.size());
+        for (Centroid centroid : centroids) {
+            buffer.putDouble(centroid.mean);
+            buffer.putLong(centroid.weight);
+        }
+        return buffer.array();
+    }
+    
+    // === Helper methods ===
+    
+    /**
+     * Sắp xếp và gộp các centroid liền kề khi tổng trọng số vẫn nằm trong một đơn vị của hàm tỷ lệ k
+     */
+    private void compress() {
+        if (unmerged == 0) {
+            return;
+        }
+        unmerged = 0;
+        centroids.sort(Comparator.comparingDouble(centroid -> centroid.mean));
+        
+        List<Centroid> merged = new ArrayList<>();
+        Centroid current = centroids.get(0);
+        long weightBefore = 0;
+        double kLeft = scale(0);
+        
+        for (int position = 1; position < centroids.size(); position++) {
+            Centroid next = centroids.get(position);
+            double qRight = (double) (weightBefore + current.weight + next.weight) / count;
+            if (scale(qRight) - kLeft <= 1) {
+                current = current.merge(next);
+            } else {
+                merged.add(current);
+                weightBefore += current.weight;
+                kLeft = scale((double) weightBefore / count);
+                current = next;
+            }
+        }
+        merged.add(current);
+        
+        centroids.clear();
+        centroids.addAll(merged);
+    }
+    
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1.0, q) - 1);
+    }
+    
+    private record Centroid(double mean, long weight) {
+        
+        Centroid merge(Centroid other) {
+            long total = weight + other.weight;
+            return new Centroid(mean + (other.mean - mean) * other.weight / total, total);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.thotran.sochitieu.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thotran.sochitieu.dto.request.AggregationDimension;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+import com.thotran.sochitieu.entity.Category;
+import com.thotran.sochitieu.event.TransactionChangedEvent;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.event.TransactionsImportedEvent;
+import com.thotran.sochitieu.event.UserDataChangedEvent;
+import com.thotran.sochitieu.repository.AggregationResult;
+import com.thotran.sochitieu.repository.CategoryRepository;
+import com.thotran.sochitieu.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Kho bản sao dạng cột (TransactionColumns) của giao dịch theo từng user, trả lời truy vấn tổng hợp
+ * trong bộ nhớ thay vì quét bảng transactions.
+ * 
+ * - Bản sao của user được nạp nền (virtual thread) ở lần truy vấn đầu tiên; khi chưa có thì
+ *   truy vấn dùng SQL như bình thường.
+ * - Sau khi commit, thay đổi giao dịch được ghi vào bản sao đang có. Thay đổi xảy ra trong lúc
+ *   đang nạp thì kết quả nạp bị bỏ (không biết lần đọc đã thấy thay đổi đó hay chưa), lần sau nạp lại.
+ * - Danh mục bị xóa kéo theo giao dịch bị xóa theo cascade (không có sự kiện giao dịch)
+ *   nên thay đổi danh mục / ngân sách bỏ luôn bản sao của user; import cũng vậy.
+ * - Tổng bộ nhớ bị giới hạn, bản sao của user ít dùng bị loại trước (Caffeine, theo trọng số = số byte).
+ */
+@Service
+@Slf4j
+public class TransactionColumnStore {
+    
+    private static final String CACHE_NAME = "transaction-columns";
+    
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+    private final Cache<Long, TransactionColumns> segments;
+    private final Map<Long, LoadTicket> loading = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int fetchSize;
+    private final int parallelThreshold;
+    
+    public TransactionColumnStore(TransactionRepository transactionRepository,
+                                  CategoryRepository categoryRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.analytics.columnar.enabled:true}") boolean enabled,
+                                  @Value("${app.analytics.columnar.max-memory-mb:256}") long maxMemoryMb,
+                                  @Value("${app.analytics.columnar.fetch-size:1000}") int fetchSize,
+                                  @Value("${app.analytics.columnar.parallel-threshold:200000}") int parallelThreshold) {
+        this.transactionRepository = transactionRepository;
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+        this.parallelThreshold = parallelThreshold;
+        
+        // Trọng số tính theo KB; được tính lại mỗi lần bản sao thay đổi (compute)
+        this.segments = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryMb * 1024)
+                .weigher((Long userId, TransactionColumns columns) ->
+                        (int) Math.min(Integer.MAX_VALUE, columns.estimatedBytes() / 1024 + 1))
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, segments, CACHE_NAME);
+    }
+    
+    /**
+     * Tổng hợp trong bộ nhớ nếu bản sao của user đã được nạp.
+     * 
+     * @return rỗng nếu chưa nạp (đồng thời bắt đầu nạp nền) hoặc truy vấn không hỗ trợ
+     *         (lọc theo từ khóa mô tả) - khi đó dùng SQL
+     */
+    public Optional<AggregationResult> aggregate(Long userId, TransactionFilterRequest filter,
+                                                 List<AggregationDimension> dimensions,
+                                                 boolean byAmount, int limit) {
+        if (!enabled || (filter.getKeyword() != null && !filter.getKeyword().isBlank())) {
+            return Optional.empty();
+        }
+        
+        TransactionColumns columns = segments.getIfPresent(userId);
+        if (columns == null) {
+            scheduleLoad(userId);
+            return Optional.empty();
+        }
+        
+        Map<Long, Category> categories = dimensions.contains(AggregationDimension.CATEGORY)
+                ? categoryRepository.findByUserId(userId).stream()
+                        .collect(Collectors.toMap(Category::getId, Function.identity()))
+                : Map.of();
+        
+        try {
+            return Optional.ofNullable(columns.aggregate(filter, dimensions, byAmount, limit,
+                    categories, parallelThreshold));
+        } catch (ArithmeticException ex) {
+            // Tổng vượt phạm vi long: bỏ bản sao, dùng SQL (DECIMAL)
+            log.warn("Dropping columnar replica of user {}: {}", userId, ex.getMessage());
+            segments.asMap().remove(userId, columns);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Ghi thay đổi giao dịch vào bản sao sau khi commit
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        segments.asMap().compute(event.userId(), (userId, columns) -> {
+            if (columns == null) {
+                markStale(userId);
+                return null;
+            }
+            try {
+                columns.apply(event.removed(), event.added());
+                return columns;
+            } catch (ArithmeticException ex) {
+                log.warn("Dropping columnar replica of user {}: {}", userId, ex.getMessage());
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * Danh mục / ngân sách thay đổi: bỏ bản sao của user (nạp lại ở lần truy vấn sau)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        drop(event.userId());
+    }
+    
+    /**
+     * Import giao dịch xong: bỏ bản sao của user, nạp lại một lần thay vì ghi từng dòng
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        drop(event.userId());
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        loader.shutdownNow();
+        loader.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    // === Helper methods ===
+    
+    private void scheduleLoad(Long userId) {
+        LoadTicket ticket = new LoadTicket();
+        if (loading.putIfAbsent(userId, ticket) == null) {
+            loader.execute(() -> load(userId, ticket));
+        }
+    }
+    
+    private void load(Long userId, LoadTicket ticket) {
+        try {
+            long startedAt = System.nanoTime();
+            TransactionColumns loaded = readOnlyTransaction.execute(status -> {
+                TransactionColumns columns = new TransactionColumns(1024);
+                try (Stream<TransactionSnapshot> rows = transactionRepository.streamSnapshots(userId, fetchSize)) {
+                    rows.forEach(columns::append);
+                }
+                return columns;
+            });
+            
+            // Cùng khóa với onTransactionChanged: không thể có thay đổi chen giữa kiểm tra và ghi
+            segments.asMap().compute(userId, (id, existing) -> ticket.stale ? existing : loaded);
+            log.debug("Columnar replica of user {} loaded in {} ms (stale: {})",
+                    userId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), ticket.stale);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to load columnar replica of user {}", userId, ex);
+        } finally {
+            loading.remove(userId, ticket);
+        }
+    }
+    
+    private void drop(Long userId) {
+        segments.asMap().compute(userId, (id, columns) -> {
+            markStale(id);
+            return null;
+        });
+    }
+    
+    private void markStale(Long userId) {
+        LoadTicket ticket = loading.get(userId);
+        if (ticket != null) {
+            ticket.stale = true;
+        }
+    }
+    
+    /**
+     * Một lần nạp đang chạy; stale = có thay đổi commit trong lúc nạp
+     */
+    private static final class LoadTicket {
+        private volatile boolean stale;
+    }
+}
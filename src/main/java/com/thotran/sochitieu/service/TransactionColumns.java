@@ -0,0 +1,623 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.request.AggregationDimension;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+import com.thotran.sochitieu.entity.Category;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.repository.AggregationResult;
+import com.thotran.sochitieu.repository.AggregationRow;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Bản sao dạng cột (columnar) các giao dịch của một user, dùng cho truy vấn tổng hợp trong bộ nhớ.
+ * 
+ * Mỗi giao dịch là một vị trí trong các mảng nguyên thủy song song: id, ngày (epoch day),
+ * danh mục + loại (chỉ số danh mục << 1 | bit loại) và số tiền theo đơn vị nhỏ nhất (x100).
+ * Danh mục được đánh chỉ số theo thứ tự xuất hiện. Thứ tự các dòng không có ý nghĩa:
+ * xóa một dòng = chuyển dòng cuối vào chỗ trống.
+ * 
+ * Ghi theo id (bảng băm id -> vị trí dòng) nên áp dụng lại cùng một thay đổi không làm sai số liệu.
+ * Cộng dồn số tiền kiểm tra tràn số (ArithmeticException) như Money.
+ * Nhiều truy vấn đọc song song, ghi độc quyền (ReadWriteLock).
+ */
+public final class TransactionColumns {
+    
+    // EXPENSE = 0, INCOME = 1: cùng thứ tự với ORDER BY t.type của truy vấn SQL
+    private static final int INCOME_BIT = 1;
+    
+    // Số nhóm tối đa cộng dồn bằng mảng (chỉ số nhóm = khóa), nhiều hơn thì dùng HashMap
+    private static final int MAX_DENSE_GROUPS = 1 << 20;
+    
+    // Kích thước mỗi phần khi quét song song, và tổng số ô mảng tạm tối đa của các phần
+    private static final int PARALLEL_CHUNK_ROWS = 1 << 16;
+    private static final long MAX_PARALLEL_CELLS = 1 << 22;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private int size;
+    private long[] ids;
+    private int[] days;
+    private int[] categoryTypes;
+    private long[] amounts;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+    private final RowIndex rowIndex;
+    
+    // Từ điển danh mục: chỉ số -> id và id -> chỉ số
+    private long[] categoryIds = new long[16];
+    private int categoryCount;
+    private final Map<Long, Integer> categoryIndex = new HashMap<>();
+    
+    public TransactionColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.ids = new long[capacity];
+        this.days = new int[capacity];
+        this.categoryTypes = new int[capacity];
+        this.amounts = new long[capacity];
+        this.rowIndex = new RowIndex(capacity);
+    }
+    
+    /**
+     * Áp dụng một thay đổi: xóa các dòng cũ (theo id) rồi ghi các dòng mới.
+     * 
+     * @throws ArithmeticException Số tiền không biểu diễn được bằng đơn vị nhỏ nhất
+     */
+    public void apply(List<TransactionSnapshot> removed, List<TransactionSnapshot> added) {
+        lock.writeLock().lock();
+        try {
+            for (TransactionSnapshot snapshot : removed) {
+                int row = indexOf(snapshot.transactionId());
+                if (row >= 0) {
+                    removeRow(row);
+                }
+            }
+            for (TransactionSnapshot snapshot : added) {
+                put(snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Thêm một dòng không kiểm tra trùng id, chỉ dùng khi dựng bản sao từ DB
+     */
+    public void append(TransactionSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            write(size, snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Bộ nhớ ước tính (byte) của các mảng, dùng làm trọng số khi giới hạn bộ nhớ
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            // id 8 + ngày 4 + danh mục/loại 4 + số tiền 8 byte mỗi dòng, từ điển danh mục ~ 64 byte mỗi mục
+            return 24L * ids.length + rowIndex.estimatedBytes() + 64L * categoryCount + 128;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Tổng hợp giống TransactionAggregationRepository.aggregate (không hỗ trợ lọc theo từ khóa).
+     * 
+     * @param categories Thông tin hiển thị của danh mục (chỉ cần khi nhóm theo CATEGORY)
+     * @param parallelThreshold Số dòng tối thiểu để quét song song (fork-join)
+     * @return null nếu số tổ hợp nhóm quá lớn để đánh khóa bằng một số long
+     */
+    public AggregationResult aggregate(TransactionFilterRequest filter, List<AggregationDimension> dimensions,
+                                       boolean byAmount, int limit, Map<Long, Category> categories,
+                                       int parallelThreshold) {
+        lock.readLock().lock();
+        try {
+            int from = filter.getStartDate() != null
+                    ? (int) Math.max(filter.getStartDate().toEpochDay(), minDay) : minDay;
+            int to = filter.getEndDate() != null
+                    ? (int) Math.min(filter.getEndDate().toEpochDay(), maxDay) : maxDay;
+            if (size == 0 || from > to) {
+                return new AggregationResult(List.of(), BigDecimal.ZERO, 0, 0);
+            }
+            
+            Scan scan = new Scan(from, to,
+                    filter.getType() == null ? -1 : typeBit(filter.getType()),
+                    allowedCategories(filter),
+                    filter.getMinAmount() != null ? toMinorUnits(filter.getMinAmount(), RoundingMode.CEILING) : Long.MIN_VALUE,
+                    filter.getMaxAmount() != null ? toMinorUnits(filter.getMaxAmount(), RoundingMode.FLOOR) : Long.MAX_VALUE,
+                    planDimensions(dimensions, from, to));
+            
+            long groupSpace = 1;
+            for (int index = scan.dimensions.length - 1; index >= 0; index--) {
+                Dimension dimension = scan.dimensions[index];
+                dimension.stride = groupSpace;
+                try {
+                    groupSpace = Math.multiplyExact(groupSpace, dimension.cardinality);
+                } catch (ArithmeticException ex) {
+                    return null;
+                }
+            }
+            
+            List<long[]> groups = groupSpace <= MAX_DENSE_GROUPS
+                    ? scanDense(scan, (int) groupSpace, parallelThreshold)
+                    : scanSparse(scan);
+            return toResult(scan, groups, byAmount, limit, categories);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // === Ghi ===
+    
+    private void put(TransactionSnapshot snapshot) {
+        int row = indexOf(snapshot.transactionId());
+        write(row >= 0 ? row : size, snapshot);
+    }
+    
+    /**
+     * Ghi một dòng vào vị trí row (row = size: thêm dòng mới)
+     */
+    private void write(int row, TransactionSnapshot snapshot) {
+        long id = snapshot.transactionId();
+        long amount = toMinorUnits(snapshot.amount());
+        int day = (int) snapshot.transactionDate().toEpochDay();
+        int categoryType = categoryIndexOf(snapshot.categoryId()) << 1 | typeBit(snapshot.type());
+        if (row == ids.length) {
+            grow();
+        }
+        
+        ids[row] = id;
+        days[row] = day;
+        categoryTypes[row] = categoryType;
+        amounts[row] = amount;
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+        if (row == size) {
+            rowIndex.put(id, row);
+            size++;
+        }
+    }
+    
+    private void removeRow(int row) {
+        rowIndex.remove(ids[row]);
+        int last = --size;
+        if (row == last) {
+            return;
+        }
+        ids[row] = ids[last];
+        days[row] = days[last];
+        categoryTypes[row] = categoryTypes[last];
+        amounts[row] = amounts[last];
+        rowIndex.put(ids[row], row);
+    }
+    
+    private int indexOf(long id) {
+        return rowIndex.get(id);
+    }
+    
+    private int categoryIndexOf(Long categoryId) {
+        Integer index = categoryIndex.get(categoryId);
+        if (index != null) {
+            return index;
+        }
+        if (categoryCount == categoryIds.length) {
+            categoryIds = Arrays.copyOf(categoryIds, categoryCount * 2);
+        }
+        categoryIds[categoryCount] = categoryId;
+        categoryIndex.put(categoryId, categoryCount);
+        return categoryCount++;
+    }
+    
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        days = Arrays.copyOf(days, capacity);
+        categoryTypes = Arrays.copyOf(categoryTypes, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+    }
+    
+    // === Đọc ===
+    
+    /**
+     * Các danh mục được lọc (theo chỉ số từ điển), null = không lọc
+     */
+    private boolean[] allowedCategories(TransactionFilterRequest filter) {
+        Set<Long> requested = new LinkedHashSet<>();
+        if (filter.getCategoryId() != null) {
+            requested.add(filter.getCategoryId());
+        }
+        if (filter.getCategoryIds() != null) {
+            requested.addAll(filter.getCategoryIds());
+        }
+        if (requested.isEmpty()) {
+            return null;
+        }
+        
+        boolean[] allowed = new boolean[categoryCount];
+        for (Long categoryId : requested) {
+            Integer index = categoryIndex.get(categoryId);
+            if (index != null) {
+                allowed[index] = true;
+            }
+        }
+        return allowed;
+    }
+    
+    /**
+     * Mỗi chiều được đổi thành thứ tự (ordinal) liên tục 0..cardinality-1, tăng theo giá trị hiển thị.
+     * Chiều thời gian tra bảng theo ngày trong khoảng [from, to], chiều danh mục tra theo chỉ số từ điển.
+     */
+    private Dimension[] planDimensions(List<AggregationDimension> dimensions, int from, int to) {
+        Dimension[] planned = new Dimension[dimensions.size()];
+        for (int index = 0; index < planned.length; index++) {
+            AggregationDimension kind = dimensions.get(index);
+            planned[index] = switch (kind) {
+                case CATEGORY -> planCategory();
+                case TYPE -> new Dimension(kind, Dimension.BY_TYPE, null, new int[]{0, 1}, 2);
+                default -> planTime(kind, from, to);
+            };
+        }
+        return planned;
+    }
+    
+    private Dimension planCategory() {
+        // Sắp theo id danh mục (giống ORDER BY t.category_id)
+        int[] byRank = IntStream.range(0, categoryCount)
+                .boxed()
+                .sorted((left, right) -> Long.compare(categoryIds[left], categoryIds[right]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] ordinals = new int[categoryCount];
+        for (int rank = 0; rank < byRank.length; rank++) {
+            ordinals[byRank[rank]] = rank;
+        }
+        return new Dimension(AggregationDimension.CATEGORY, Dimension.BY_CATEGORY, ordinals, byRank,
+                Math.max(categoryCount, 1));
+    }
+    
+    private Dimension planTime(AggregationDimension kind, int from, int to) {
+        if (kind == AggregationDimension.WEEKDAY) {
+            int[] ordinals = new int[to - from + 1];
+            for (int offset = 0; offset < ordinals.length; offset++) {
+                ordinals[offset] = LocalDate.ofEpochDay(from + offset).getDayOfWeek().getValue() - 1;
+            }
+            return new Dimension(kind, Dimension.BY_DAY, ordinals, new int[]{1, 2, 3, 4, 5, 6, 7}, 7);
+        }
+        
+        // Mã của các chiều còn lại không giảm theo ngày: ngày mới có mã khác ngày trước = nhóm mới
+        int[] ordinals = new int[to - from + 1];
+        int[] codes = new int[ordinals.length];
+        int count = 0;
+        for (int offset = 0; offset < ordinals.length; offset++) {
+            int code = timeCode(kind, LocalDate.ofEpochDay(from + offset));
+            if (count == 0 || codes[count - 1] != code) {
+                codes[count++] = code;
+            }
+            ordinals[offset] = count - 1;
+        }
+        return new Dimension(kind, Dimension.BY_DAY, ordinals, Arrays.copyOf(codes, count), count);
+    }
+    
+    private static int timeCode(AggregationDimension kind, LocalDate date) {
+        return switch (kind) {
+            case DAY -> (int) date.toEpochDay();
+            case WEEK -> date.get(IsoFields.WEEK_BASED_YEAR) * 100 + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+            case MONTH -> date.getYear() * 100 + date.getMonthValue();
+            case QUARTER -> date.getYear() * 10 + date.get(IsoFields.QUARTER_OF_YEAR);
+            case YEAR -> date.getYear();
+            default -> throw new IllegalArgumentException("Not a time dimension: " + kind);
+        };
+    }
+    
+    /**
+     * Cộng dồn vào mảng theo khóa nhóm; dữ liệu lớn thì chia phần quét song song rồi gộp
+     */
+    private List<long[]> scanDense(Scan scan, int groupSpace, int parallelThreshold) {
+        int chunks = (size + PARALLEL_CHUNK_ROWS - 1) / PARALLEL_CHUNK_ROWS;
+        long[][] totals;
+        if (size >= parallelThreshold && chunks > 1 && (long) chunks * groupSpace <= MAX_PARALLEL_CELLS) {
+            totals = IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> scanRange(scan, groupSpace, chunk * PARALLEL_CHUNK_ROWS,
+                            Math.min(size, (chunk + 1) * PARALLEL_CHUNK_ROWS)))
+                    .reduce(TransactionColumns::merge)
+                    .orElseThrow();
+        } else {
+            totals = scanRange(scan, groupSpace, 0, size);
+        }
+        
+        long[] sums = totals[0];
+        long[] counts = totals[1];
+        List<long[]> groups = new ArrayList<>();
+        for (int key = 0; key < groupSpace; key++) {
+            if (counts[key] > 0) {
+                groups.add(new long[]{key, sums[key], counts[key]});
+            }
+        }
+        return groups;
+    }
+    
+    private long[][] scanRange(Scan scan, int groupSpace, int start, int end) {
+        long[] sums = new long[groupSpace];
+        long[] counts = new long[groupSpace];
+        for (int row = start; row < end; row++) {
+            if (scan.matches(days[row], categoryTypes[row], amounts[row])) {
+                int key = (int) scan.keyOf(days[row], categoryTypes[row]);
+                sums[key] = Math.addExact(sums[key], amounts[row]);
+                counts[key]++;
+            }
+        }
+        return new long[][]{sums, counts};
+    }
+    
+    private static long[][] merge(long[][] left, long[][] right) {
+        for (int key = 0; key < left[0].length; key++) {
+            left[0][key] = Math.addExact(left[0][key], right[0][key]);
+            left[1][key] += right[1][key];
+        }
+        return left;
+    }
+    
+    /**
+     * Quá nhiều tổ hợp nhóm cho một mảng: cộng dồn vào HashMap (chỉ các nhóm có dữ liệu)
+     */
+    private List<long[]> scanSparse(Scan scan) {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            if (scan.matches(days[row], categoryTypes[row], amounts[row])) {
+                long key = scan.keyOf(days[row], categoryTypes[row]);
+                long[] group = totals.computeIfAbsent(key, ignored -> new long[]{key, 0, 0});
+                group[1] = Math.addExact(group[1], amounts[row]);
+                group[2]++;
+            }
+        }
+        
+        List<long[]> groups = new ArrayList<>(totals.values());
+        groups.sort((left, right) -> Long.compare(left[0], right[0]));
+        return groups;
+    }
+    
+    /**
+     * Sắp xếp, cắt theo limit và giải mã khóa nhóm thành giá trị các chiều
+     * (cùng định dạng với TransactionAggregationRepositoryImpl)
+     */
+    private AggregationResult toResult(Scan scan, List<long[]> groups, boolean byAmount, int limit,
+                                       Map<Long, Category> categories) {
+        long totalAmount = 0;
+        long totalCount = 0;
+        for (long[] group : groups) {
+            totalAmount = Math.addExact(totalAmount, group[1]);
+            totalCount += group[2];
+        }
+        
+        // groups đã theo thứ tự khóa = thứ tự các chiều
+        if (byAmount) {
+            groups.sort((left, right) -> Long.compare(right[1], left[1]));
+        }
+        
+        List<AggregationRow> rows = new ArrayList<>(Math.min(groups.size(), limit));
+        for (long[] group : groups.subList(0, Math.min(groups.size(), limit))) {
+            rows.add(new AggregationRow(decode(scan, group[0], categories),
+                    BigDecimal.valueOf(group[1], 2), group[2]));
+        }
+        
+        return new AggregationResult(rows, BigDecimal.valueOf(totalAmount, 2), totalCount, groups.size());
+    }
+    
+    private Map<String, Object> decode(Scan scan, long key, Map<Long, Category> categories) {
+        Map<String, Object> group = new LinkedHashMap<>();
+        for (Dimension dimension : scan.dimensions) {
+            int value = dimension.values[(int) (key / dimension.stride % dimension.cardinality)];
+            switch (dimension.kind) {
+                case CATEGORY -> {
+                    long categoryId = categoryIds[value];
+                    Category category = categories.get(categoryId);
+                    group.put("category", categoryId);
+                    group.put("categoryName", category != null ? category.getName() : null);
+                    group.put("categoryIcon", category != null ? category.getIcon() : null);
+                    group.put("categoryColor", category != null ? category.getColor() : null);
+                }
+                case TYPE -> group.put("type", (value == INCOME_BIT ? TransactionType.INCOME : TransactionType.EXPENSE).name());
+                case DAY -> group.put("day", LocalDate.ofEpochDay(value).toString());
+                case WEEK -> group.put("week", String.format("%d-W%02d", value / 100, value % 100));
+                case MONTH -> group.put("month", String.format("%d-%02d", value / 100, value % 100));
+                case QUARTER -> group.put("quarter", (value / 10) + "-Q" + (value % 10));
+                case YEAR -> group.put("year", value);
+                case WEEKDAY -> group.put("weekday", DayOfWeek.of(value).name());
+            }
+        }
+        return group;
+    }
+    
+    // === Helper methods ===
+    
+    private static int typeBit(TransactionType type) {
+        return type == TransactionType.INCOME ? INCOME_BIT : 0;
+    }
+    
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+    
+    private static long toMinorUnits(BigDecimal amount, RoundingMode rounding) {
+        BigDecimal minor = amount.movePointRight(2).setScale(0, rounding);
+        if (minor.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (minor.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return minor.longValue();
+    }
+    
+    /**
+     * Bảng băm id -> vị trí dòng trên mảng nguyên thủy (địa chỉ mở, dò tuyến tính, xóa bằng dời lùi),
+     * để sửa / xóa một giao dịch không phải quét mọi dòng
+     */
+    private static final class RowIndex {
+        
+        // Id giao dịch cấp từ sequence (dương), không bao giờ bằng giá trị này
+        private static final long EMPTY = Long.MIN_VALUE;
+        
+        private long[] keys;
+        private int[] rows;
+        private int mask;
+        private int count;
+        
+        RowIndex(int expected) {
+            allocate(Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1);
+        }
+        
+        int get(long id) {
+            for (int slot = slotOf(id); ; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    return rows[slot];
+                }
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+        
+        void put(long id, int row) {
+            if ((count + 1) * 2L > keys.length) {
+                resize();
+            }
+            int slot = slotOf(id);
+            while (keys[slot] != EMPTY && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = id;
+                count++;
+            }
+            rows[slot] = row;
+        }
+        
+        void remove(long id) {
+            int hole = slotOf(id);
+            while (keys[hole] != id) {
+                if (keys[hole] == EMPTY) {
+                    return;
+                }
+                hole = (hole + 1) & mask;
+            }
+            
+            // Dời lùi các khóa phía sau vào chỗ trống nếu vị trí lý tưởng của chúng không nằm giữa hai chỗ
+            for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int ideal = slotOf(keys[next]);
+                if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    rows[hole] = rows[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = EMPTY;
+            count--;
+        }
+        
+        long estimatedBytes() {
+            return 12L * keys.length;
+        }
+        
+        private int slotOf(long id) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+        
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldRows = rows;
+            allocate(oldKeys.length * 2);
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != EMPTY) {
+                    put(oldKeys[slot], oldRows[slot]);
+                }
+            }
+        }
+        
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            rows = new int[capacity];
+            mask = capacity - 1;
+            count = 0;
+        }
+    }
+    
+    /**
+     * Một chiều nhóm đã lập kế hoạch: cách lấy ordinal của một dòng và giá trị (mã) của từng ordinal
+     */
+    private static final class Dimension {
+        
+        static final int BY_DAY = 0;
+        static final int BY_CATEGORY = 1;
+        static final int BY_TYPE = 2;
+        
+        final AggregationDimension kind;
+        final int source;
+        final int[] ordinals;       // BY_DAY: theo (ngày - from), BY_CATEGORY: theo chỉ số danh mục
+        final int[] values;         // Ordinal -> mã hiển thị (ngày, yyyyMM..., chỉ số danh mục, bit loại)
+        final int cardinality;
+        long stride;
+        
+        Dimension(AggregationDimension kind, int source, int[] ordinals, int[] values, int cardinality) {
+            this.kind = kind;
+            this.source = source;
+            this.ordinals = ordinals;
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+        
+        int ordinalOf(int dayOffset, int categoryType) {
+            return switch (source) {
+                case BY_DAY -> ordinals[dayOffset];
+                case BY_CATEGORY -> ordinals[categoryType >>> 1];
+                default -> categoryType & 1;
+            };
+        }
+    }
+    
+    /**
+     * Điều kiện lọc đã đổi sang dạng cột + các chiều nhóm
+     */
+    private record Scan(int from, int to, int typeBit, boolean[] allowedCategories,
+                        long minAmount, long maxAmount, Dimension[] dimensions) {
+        
+        boolean matches(int day, int categoryType, long amount) {
+            return day >= from && day <= to
+                    && (typeBit < 0 || (categoryType & 1) == typeBit)
+                    && (allowedCategories == null || allowedCategories[categoryType >>> 1])
+                    && amount >= minAmount && amount <= maxAmount;
+        }
+        
+        long keyOf(int day, int categoryType) {
+            long key = 0;
+            for (Dimension dimension : dimensions) {
+                key += dimension.stride * dimension.ordinalOf(day - from, categoryType);
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.thotran.sochitieu.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thotran.sochitieu.dto.request.ExportFormat;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
+import com.thotran.sochitieu.dto.request.TransactionSort;
+import com.thotran.sochitieu.dto.response.TransactionResponse;
+import com.thotran.sochitieu.repository.TransactionRepository;
+import com.thotran.sochitieu.repository.TransactionSpecifications;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service export lịch sử giao dịch ra file (CSV / NDJSON).
+ *
+ * Dữ liệu được đọc bằng stream từ DB (fetch size cố định) và ghi thẳng ra output,
+ * mỗi dòng chỉ tồn tại trong bộ nhớ trong lúc được ghi - bộ nhớ dùng không phụ thuộc
+ * số lượng giao dịch của user.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportService {
+    
+    private static final String CSV_HEADER = "id,date,type,amount,category,description";
+    
+    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+    
+    /**
+     * Kiểm tra bộ lọc trước khi bắt đầu trả response (lỗi sau khi đã ghi header không còn trả JSON được)
+     */
+    public void validate(TransactionFilterRequest filter) {
+        transactionService.validateFilter(filter);
+    }
+    
+    /**
+     * Ghi toàn bộ giao dịch thỏa bộ lọc của user ra output.
+     * Chạy trong transaction read-only riêng (được gọi từ thread ghi response).
+     */
+    @Transactional(readOnly = true)
+    public void export(Long userId, TransactionFilterRequest filter, ExportFormat format,
+                       boolean gzip, OutputStream output) throws IOException {
+        TransactionSort sort = filter.getSort() != null ? filter.getSort() : TransactionSort.DATE_DESC;
+        
+        OutputStream target = gzip ? new GZIPOutputStream(output, 8192) : output;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+        long count = 0;
+        
+        try (Stream<TransactionResponse> rows = transactionRepository.stream(
+                TransactionSpecifications.matching(userId, filter), sort, fetchSize)) {
+            
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            
+            Iterator<TransactionResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TransactionResponse row = iterator.next();
+                if (format == ExportFormat.NDJSON) {
+                    writer.write(objectMapper.writeValueAsString(row));
+                } else {
+                    writeCsvRow(writer, row);
+                }
+                writer.write('\n');
+                count++;
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        
+        // Chỉ flush/finish, không đóng output của servlet
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        
+        log.info("Exported {} transactions for user {} as {}", count, userId, format);
+    }
+    
+    // === Helper methods ===
+    
+    private void writeCsvRow(Writer writer, TransactionResponse row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(row.getTransactionDate().toString());
+        writer.write(',');
+        writer.write(row.getType().name());
+        writer.write(',');
+        writer.write(row.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(escapeCsv(row.getCategoryName()));
+        writer.write(',');
+        writer.write(escapeCsv(row.getDescription()));
+    }
+    
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,373 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.request.ImportFormat;
+import com.thotran.sochitieu.dto.response.ImportResultResponse;
+import com.thotran.sochitieu.dto.response.ImportResultResponse.RowError;
+import com.thotran.sochitieu.entity.Category;
+import com.thotran.sochitieu.entity.Transaction;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.entity.User;
+import com.thotran.sochitieu.event.ImportBatchWrittenEvent;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.event.TransactionsImportedEvent;
+import com.thotran.sochitieu.event.TransactionsImportedEvent.ExpensePeriod;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+import com.thotran.sochitieu.repository.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Service import giao dịch hàng loạt từ file sao kê (CSV / OFX).
+ * 
+ * File được đọc tuần tự từng dòng/từng giao dịch và ghi xuống DB theo lô JDBC (Hibernate batching),
+ * nên bộ nhớ dùng không phụ thuộc kích thước file. Dòng lỗi được ghi nhận và bỏ qua,
+ * không làm hỏng cả lần import. Ngân sách được kiểm tra sau commit,
+ * gộp thành một lần cho mỗi (danh mục, tháng) bị ảnh hưởng.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionImportService {
+    
+    // Danh mục mặc định cho OFX (file ngân hàng không có danh mục)
+    private static final String DEFAULT_EXPENSE_CATEGORY = "Chi tiêu khác";
+    private static final String DEFAULT_INCOME_CATEGORY = "Thu nhập khác";
+    
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+    
+    // Giới hạn của cột amount (precision = 15, scale = 2)
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("9999999999999.99");
+    
+    private static final DateTimeFormatter VN_DATE = DateTimeFormatter.ofPattern("d/M/yyyy");
+    
+    // Số tiền: dấu chấm thập phân, dấu phẩy (tùy chọn) ngăn cách đúng từng nhóm 3 chữ số phần nguyên.
+    // "1,5" / "12,50" (dấu phẩy thập phân) bị từ chối thay vì bỏ dấu phẩy thành 15 / 1250
+    private static final Pattern AMOUNT = Pattern.compile("[+-]?(\\d{1,3}(,\\d{3})+|\\d+)(\\.\\d+)?");
+    
+    private final EntityManager entityManager;
+    private final UserService userService;
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.import.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+    
+    /**
+     * Import file sao kê cho user.
+     * 
+     * @param format Định dạng file; null = tự nhận diện theo phần mở rộng
+     */
+    @Transactional
+    public ImportResultResponse importStatement(Long userId, MultipartFile file, ImportFormat format) {
+        if (file == null || file.isEmpty()) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "File import không được để trống");
+        }
+        
+        ImportContext context = new ImportContext(userService.getUserEntity(userId),
+                categoryRepository.findByUserId(userId));
+        ImportFormat resolvedFormat = format != null ? format : detectFormat(file.getOriginalFilename());
+        
+        try (Reader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            
+            if (resolvedFormat == ImportFormat.OFX) {
+                readOfx(reader, context);
+            } else {
+                readCsv((BufferedReader) reader, context);
+            }
+        } catch (IOException ex) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Không đọc được file import: " + ex.getMessage());
+        }
+        
+        flush(context);
+        
+        // Việc sau commit (cache, bản sao dạng cột, đánh giá ngân sách): một sự kiện cho cả lần import
+        if (context.importedCount > 0) {
+            eventPublisher.publishEvent(new TransactionsImportedEvent(userId, context.expensePeriods));
+        }
+        
+        log.info("Imported {} transactions for user {} ({} failed rows)",
+                context.importedCount, userId, context.failedCount);
+        
+        return ImportResultResponse.builder()
+                .totalRows(context.totalRows)
+                .importedCount(context.importedCount)
+                .failedCount(context.failedCount)
+                .errors(context.errors)
+                .errorsTruncated(context.failedCount > context.errors.size())
+                .build();
+    }
+    
+    // === Đọc file ===
+    
+    /**
+     * CSV: date,amount,type,category,description (dòng tiêu đề là tùy chọn).
+     * type có thể bỏ trống, khi đó số âm = EXPENSE, số dương = INCOME.
+     */
+    private void readCsv(BufferedReader reader, ImportContext context) throws IOException {
+        String line;
+        long lineNumber = 0;
+        
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            
+            if (line.isBlank() || (lineNumber == 1 && line.trim().toLowerCase(Locale.ROOT).startsWith("date"))) {
+                continue;
+            }
+            
+            context.totalRows++;
+            try {
+                List<String> fields = splitCsvLine(line);
+                if (fields.size() < 4) {
+                    throw new IllegalArgumentException("Thiếu cột (cần: date,amount,type,category[,description])");
+                }
+                
+                BigDecimal signedAmount = parseAmount(fields.get(1));
+                TransactionType type = fields.get(2).isBlank()
+                        ? typeFromSign(signedAmount)
+                        : parseType(fields.get(2));
+                
+                addRow(context, lineNumber, parseDate(fields.get(0)), signedAmount.abs(), type,
+                        fields.get(3), fields.size() > 4 ? fields.get(4) : null);
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                context.reject(lineNumber, ex.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * OFX (SGML/XML): đọc lần lượt từng tag, gom các trường của mỗi <STMTTRN>.
+     * Không giữ toàn bộ file trong bộ nhớ.
+     */
+    private void readOfx(Reader reader, ImportContext context) {
+        Scanner scanner = new Scanner(reader).useDelimiter("<");
+        Map<String, String> fields = null;
+        long index = 0;
+        
+        while (scanner.hasNext()) {
+            String token = scanner.next();
+            int close = token.indexOf('>');
+            if (close < 0) {
+                continue;
+            }
+            
+            String tag = token.substring(0, close).trim().toUpperCase(Locale.ROOT);
+            String value = token.substring(close + 1).trim();
+            
+            if (tag.equals("STMTTRN")) {
+                fields = new HashMap<>();
+            } else if (tag.equals("/STMTTRN") && fields != null) {
+                index++;
+                context.totalRows++;
+                processOfxTransaction(context, index, fields);
+                fields = null;
+            } else if (fields != null && !tag.startsWith("/")) {
+                fields.put(tag, value);
+            }
+        }
+    }
+    
+    private void processOfxTransaction(ImportContext context, long index, Map<String, String> fields) {
+        try {
+            String posted = fields.get("DTPOSTED");
+            if (posted == null || posted.length() < 8) {
+                throw new IllegalArgumentException("Thiếu ngày giao dịch (DTPOSTED)");
+            }
+            LocalDate date = LocalDate.parse(posted.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+            
+            BigDecimal signedAmount = parseAmount(fields.get("TRNAMT"));
+            TransactionType type = typeFromSign(signedAmount);
+            String categoryName = type == TransactionType.EXPENSE
+                    ? DEFAULT_EXPENSE_CATEGORY
+                    : DEFAULT_INCOME_CATEGORY;
+            String description = fields.getOrDefault("NAME", fields.get("MEMO"));
+            
+            addRow(context, index, date, signedAmount.abs(), type, categoryName, description);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            context.reject(index, ex.getMessage());
+        }
+    }
+    
+    // === Ghi theo lô ===
+    
+    private void addRow(ImportContext context, long lineNumber, LocalDate date, BigDecimal amount,
+                        TransactionType type, String categoryName, String description) {
+        if (amount.signum() == 0 || amount.compareTo(MAX_AMOUNT) > 0) {
+            throw new IllegalArgumentException("Số tiền không hợp lệ: " + amount.toPlainString());
+        }
+        
+        Category category = context.categoriesByName.get(normalize(categoryName));
+        if (category == null) {
+            throw new IllegalArgumentException("Không tìm thấy danh mục: " + categoryName.trim());
+        }
+        
+        Transaction transaction = Transaction.builder()
+                .amount(amount.setScale(2, RoundingMode.HALF_UP))
+                .type(type)
+                .description(truncate(description))
+                .transactionDate(date)
+                .category(category)
+                .user(context.user)
+                .build();
+        entityManager.persist(transaction);
+        context.pending.add(TransactionSnapshot.of(transaction));
+        if (type == TransactionType.EXPENSE) {
+            context.expensePeriods.add(new ExpensePeriod(category.getId(), YearMonth.from(date)));
+        }
+        
+        if (context.pending.size() >= batchSize) {
+            flush(context);
+        }
+    }
+    
+    /**
+     * Ghi các giao dịch đang chờ (Hibernate gom thành lô JDBC) rồi giải phóng
+     * persistence context để bộ nhớ không tăng theo số dòng
+     */
+    private void flush(ImportContext context) {
+        if (context.pending.isEmpty()) {
+            return;
+        }
+        
+        // Bảng tổng hợp cập nhật theo từng lô (listener đồng bộ), không giữ lô nào tới lúc commit
+        eventPublisher.publishEvent(new ImportBatchWrittenEvent(context.user.getId(), context.pending));
+        entityManager.flush();
+        entityManager.clear();
+        context.importedCount += context.pending.size();
+        context.pending.clear();
+    }
+    
+    // === Helper methods ===
+    
+    private ImportFormat detectFormat(String filename) {
+        if (filename != null && filename.toLowerCase(Locale.ROOT).matches(".*\\.(ofx|qfx)$")) {
+            return ImportFormat.OFX;
+        }
+        return ImportFormat.CSV;
+    }
+    
+    private LocalDate parseDate(String text) {
+        String value = text.trim();
+        return value.contains("/") ? LocalDate.parse(value, VN_DATE) : LocalDate.parse(value);
+    }
+    
+    private BigDecimal parseAmount(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Thiếu số tiền");
+        }
+        String value = text.trim();
+        if (!AMOUNT.matcher(value).matches()) {
+            throw new IllegalArgumentException(
+                    "Số tiền không hợp lệ (dùng dấu chấm cho phần thập phân, VD: 1,250.50): " + value);
+        }
+        return new BigDecimal(value.replace(",", ""));
+    }
+    
+    private TransactionType parseType(String text) {
+        try {
+            return TransactionType.valueOf(text.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Loại giao dịch không hợp lệ (INCOME/EXPENSE): " + text.trim());
+        }
+    }
+    
+    private TransactionType typeFromSign(BigDecimal signedAmount) {
+        return signedAmount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+    }
+    
+    private String truncate(String description) {
+        if (description == null || description.isBlank()) {
+            return null;
+        }
+        String value = description.trim();
+        return value.length() > MAX_DESCRIPTION_LENGTH ? value.substring(0, MAX_DESCRIPTION_LENGTH) : value;
+    }
+    
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Tách một dòng CSV, hỗ trợ giá trị trong dấu nháy kép ("a, b" và "" để escape)
+     */
+    private List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        
+        return fields;
+    }
+    
+    // === Trạng thái của một lần import ===
+    
+    private class ImportContext {
+        final User user;
+        final Map<String, Category> categoriesByName = new HashMap<>();
+        final List<TransactionSnapshot> pending = new ArrayList<>();
+        final Set<ExpensePeriod> expensePeriods = new HashSet<>();
+        final List<RowError> errors = new ArrayList<>();
+        long totalRows;
+        long importedCount;
+        long failedCount;
+        
+        ImportContext(User user, List<Category> categories) {
+            this.user = user;
+            for (Category category : categories) {
+                categoriesByName.put(normalize(category.getName()), category);
+            }
+        }
+        
+        void reject(long line, String message) {
+            failedCount++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package com.thotran.sochitieu.service;
 
+import com.thotran.sochitieu.dto.request.TransactionBatchRequest;
+import com.thotran.sochitieu.dto.request.TransactionFilterRequest;
 import com.thotran.sochitieu.dto.request.TransactionRequest;
+import com.thotran.sochitieu.dto.request.TransactionSort;
+import com.thotran.sochitieu.dto.response.BatchCreateResultResponse;
+import com.thotran.sochitieu.dto.response.CursorPage;
 import com.thotran.sochitieu.dto.response.TransactionResponse;
 import com.thotran.sochitieu.entity.*;
+import com.thotran.sochitieu.event.TransactionChangedEvent;
+import com.thotran.sochitieu.event.TransactionSnapshot;
 import com.thotran.sochitieu.exception.AppException;
 import com.thotran.sochitieu.exception.ErrorCode;
-import com.thotran.sochitieu.repository.BudgetRepository;
-import com.thotran.sochitieu.repository.NotificationRepository;
+import com.thotran.sochitieu.repository.CategoryRepository;
+import com.thotran.sochitieu.repository.TransactionCursor;
 import com.thotran.sochitieu.repository.TransactionRepository;
+import com.thotran.sochitieu.repository.TransactionSpecifications;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -29,11 +41,20 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final UserService userService;
     private final CategoryService categoryService;
-    private final BudgetRepository budgetRepository;
-    private final NotificationRepository notificationRepository;
+    private final CategoryRepository categoryRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
     
-    // Ngưỡng cảnh báo (80%)
-    private static final double WARNING_THRESHOLD = 80.0;
+    // Kích thước trang mặc định / tối đa khi liệt kê giao dịch
+    @Value("${app.transactions.page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.transactions.max-page-size:200}")
+    private int maxPageSize;
+    
+    // Số giao dịch tối đa trong một request tạo hàng loạt
+    @Value("${app.transactions.batch-max-items:500}")
+    private int maxBatchItems;
     
     /**
      * Tạo giao dịch mới
@@ -44,7 +65,7 @@ public class TransactionService {
         Category category = categoryService.getCategoryEntity(userId, request.getCategoryId());
         
         Transaction transaction = Transaction.builder()
-                .amount(request.getAmount())
+                .amount(roundAmount(request.getAmount()))
                 .type(request.getType())
                 .description(request.getDescription())
                 .transactionDate(request.getTransactionDate() != null 
@@ -55,56 +76,99 @@ public class TransactionService {
                 .build();
         
         transaction = transactionRepository.save(transaction);
-        
-        // Kiểm tra ngân sách nếu là giao dịch chi tiêu
-        if (request.getType() == TransactionType.EXPENSE) {
-            checkBudgetAndNotify(user, category, transaction.getTransactionDate());
-        }
+        // Ngân sách được kiểm tra bất đồng bộ sau commit (BudgetEvaluationDispatcher)
+        eventPublisher.publishEvent(TransactionChangedEvent.created(transaction));
         
         return mapToResponse(transaction);
     }
     
     /**
-     * Lấy tất cả giao dịch của user
-     */
-    public List<TransactionResponse> getAllByUser(Long userId) {
-        return transactionRepository.findByUserIdOrderByTransactionDateDesc(userId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-    }
-    
-    /**
-     * Lấy giao dịch theo khoảng thời gian
+     * Tạo nhiều giao dịch trong một request.
+     * User và danh mục chỉ được tải một lần, các giao dịch hợp lệ được ghi theo lô JDBC,
+     * ngân sách được kiểm tra (sau commit) một lần cho mỗi (danh mục, tháng) có chi tiêu mới.
+     * Phần tử không hợp lệ bị bỏ qua và báo lỗi riêng trong kết quả.
      */
-    public List<TransactionResponse> getByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        return transactionRepository
-                .findByUserIdAndTransactionDateBetweenOrderByTransactionDateDesc(userId, startDate, endDate)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-    }
-    
-    /**
-     * Lấy giao dịch theo danh mục
-     */
-    public List<TransactionResponse> getByCategory(Long userId, Long categoryId) {
-        return transactionRepository
-                .findByUserIdAndCategoryIdOrderByTransactionDateDesc(userId, categoryId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional
+    public BatchCreateResultResponse createBatch(Long userId, TransactionBatchRequest request) {
+        List<TransactionRequest> items = request.getTransactions();
+        if (items.size() > maxBatchItems) {
+            throw new AppException(ErrorCode.INVALID_INPUT,
+                    "Tối đa " + maxBatchItems + " giao dịch mỗi lần tạo hàng loạt");
+        }
+        
+        User user = userService.getUserEntity(userId);
+        Set<Long> categoryIds = new HashSet<>();
+        for (TransactionRequest item : items) {
+            if (item != null && item.getCategoryId() != null) {
+                categoryIds.add(item.getCategoryId());
+            }
+        }
+        Map<Long, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findByIdInAndUserId(categoryIds, userId)) {
+            categories.put(category.getId(), category);
+        }
+        
+        List<BatchCreateResultResponse.ItemResult> results = new ArrayList<>(items.size());
+        List<Transaction> transactions = new ArrayList<>();
+        List<Integer> transactionIndexes = new ArrayList<>();
+        
+        for (int i = 0; i < items.size(); i++) {
+            TransactionRequest item = items.get(i);
+            String error = validateBatchItem(item, categories);
+            if (error != null) {
+                results.add(new BatchCreateResultResponse.ItemResult(i, false, null, error));
+                continue;
+            }
+            
+            transactions.add(Transaction.builder()
+                    .amount(roundAmount(item.getAmount()))
+                    .type(item.getType())
+                    .description(item.getDescription())
+                    .transactionDate(item.getTransactionDate() != null
+                            ? item.getTransactionDate()
+                            : LocalDate.now())
+                    .category(categories.get(item.getCategoryId()))
+                    .user(user)
+                    .build());
+            transactionIndexes.add(i);
+            results.add(null);
+        }
+        
+        transactionRepository.saveAll(transactions);
+        transactionRepository.flush();
+        eventPublisher.publishEvent(TransactionChangedEvent.created(userId,
+                transactions.stream().map(TransactionSnapshot::of).toList()));
+        
+        for (int i = 0; i < transactions.size(); i++) {
+            results.set(transactionIndexes.get(i), new BatchCreateResultResponse.ItemResult(
+                    transactionIndexes.get(i), true, mapToResponse(transactions.get(i)), null));
+        }
+        
+        return BatchCreateResultResponse.builder()
+                .createdCount(transactions.size())
+                .failedCount(items.size() - transactions.size())
+                .results(results)
+                .build();
     }
     
     /**
-     * Lấy giao dịch theo loại (INCOME/EXPENSE)
+     * Tìm kiếm giao dịch (phân trang theo cursor).
+     * Mọi điều kiện lọc được ghép lại và đẩy xuống một câu SQL duy nhất.
      */
-    public List<TransactionResponse> getByType(Long userId, TransactionType type) {
-        return transactionRepository
-                .findByUserIdAndTypeOrderByTransactionDateDesc(userId, type)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public CursorPage<TransactionResponse> search(Long userId, TransactionFilterRequest filter,
+                                                  String cursor, Integer size) {
+        validateFilter(filter);
+        
+        TransactionSort sort = filter.getSort() != null ? filter.getSort() : TransactionSort.DATE_DESC;
+        int pageSize = resolvePageSize(size);
+        
+        Specification<Transaction> spec = TransactionSpecifications.matching(userId, filter)
+                .and(TransactionSpecifications.after(TransactionCursor.decode(cursor, sort)));
+        
+        // Lấy dư 1 dòng để biết còn trang tiếp theo hay không
+        List<TransactionResponse> rows = transactionRepository.search(spec, sort, pageSize + 1);
+        
+        return toPage(rows, pageSize, sort);
     }
     
     /**
@@ -126,9 +190,9 @@ public class TransactionService {
                 .orElseThrow(() -> new AppException(ErrorCode.TRANSACTION_NOT_FOUND));
         
         Category category = categoryService.getCategoryEntity(userId, request.getCategoryId());
-        User user = transaction.getUser();
+        TransactionSnapshot before = TransactionSnapshot.of(transaction);
         
-        transaction.setAmount(request.getAmount());
+        transaction.setAmount(roundAmount(request.getAmount()));
         transaction.setType(request.getType());
         transaction.setDescription(request.getDescription());
         transaction.setTransactionDate(request.getTransactionDate() != null 
@@ -137,11 +201,7 @@ public class TransactionService {
         transaction.setCategory(category);
         
         transaction = transactionRepository.save(transaction);
-        
-        // Kiểm tra ngân sách nếu là giao dịch chi tiêu
-        if (request.getType() == TransactionType.EXPENSE) {
-            checkBudgetAndNotify(user, category, transaction.getTransactionDate());
-        }
+        eventPublisher.publishEvent(TransactionChangedEvent.updated(before, transaction));
         
         return mapToResponse(transaction);
     }
@@ -154,86 +214,83 @@ public class TransactionService {
         Transaction transaction = transactionRepository.findByIdAndUserId(transactionId, userId)
                 .orElseThrow(() -> new AppException(ErrorCode.TRANSACTION_NOT_FOUND));
         
+        eventPublisher.publishEvent(TransactionChangedEvent.deleted(transaction));
         transactionRepository.delete(transaction);
     }
     
-    // === Kiểm tra ngân sách và gửi thông báo ===
-    private void checkBudgetAndNotify(User user, Category category, LocalDate transactionDate) {
-        int month = transactionDate.getMonthValue();
-        int year = transactionDate.getYear();
-        
-        // Tìm budget của category trong tháng này
-        Optional<Budget> budgetOpt = budgetRepository.findByUserIdAndCategoryIdAndMonthAndYear(
-                user.getId(), category.getId(), month, year);
-        
-        if (budgetOpt.isEmpty()) {
-            return; // Không có budget -> không cần kiểm tra
+    // === Helper methods: Tạo hàng loạt ===
+    
+    /**
+     * Kiểm tra một phần tử của lô theo các ràng buộc của TransactionRequest.
+     * 
+     * @return Thông báo lỗi, hoặc null nếu hợp lệ
+     */
+    private String validateBatchItem(TransactionRequest item, Map<Long, Category> categories) {
+        if (item == null) {
+            return "Giao dịch không được để trống";
         }
         
-        Budget budget = budgetOpt.get();
-        
-        // Tính tổng đã chi trong tháng cho category này
-        LocalDate startOfMonth = LocalDate.of(year, month, 1);
-        LocalDate endOfMonth = startOfMonth.withDayOfMonth(startOfMonth.lengthOfMonth());
-        
-        BigDecimal spent = transactionRepository.sumAmountByUserIdAndCategoryIdAndDateBetween(
-                user.getId(), category.getId(), startOfMonth, endOfMonth);
-        
-        BigDecimal budgetAmount = budget.getAmount();
-        
-        // Tính phần trăm đã chi
-        double percentUsed = spent.divide(budgetAmount, 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                .doubleValue();
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
         
-        // Gửi thông báo tùy theo mức độ
-        if (spent.compareTo(budgetAmount) > 0) {
-            // Đã vượt ngân sách
-            sendBudgetExceededNotification(user, category.getName(), spent, budgetAmount);
-        } else if (percentUsed >= WARNING_THRESHOLD) {
-            // Sắp vượt ngân sách (>= 80%)
-            sendBudgetWarningNotification(user, category.getName(), spent, budgetAmount, percentUsed);
+        if (!categories.containsKey(item.getCategoryId())) {
+            return ErrorCode.CATEGORY_NOT_FOUND.getMessage();
         }
+        return null;
     }
     
-    private void sendBudgetWarningNotification(User user, String categoryName,
-                                                BigDecimal spent, BigDecimal budget, double percentUsed) {
-        String extraData = String.format(
-                "{\"categoryName\":\"%s\",\"spent\":%s,\"budget\":%s,\"percent\":%.1f}",
-                categoryName, spent, budget, percentUsed);
-        
-        Notification notification = Notification.builder()
-                .type(NotificationType.BUDGET_WARNING)
-                .title("⚠️ Cảnh báo ngân sách: " + categoryName)
-                .message(String.format("Bạn đã chi tiêu %.1f%% ngân sách cho %s (%s/%s). Hãy cân nhắc tiết kiệm!",
-                        percentUsed, categoryName, formatCurrency(spent), formatCurrency(budget)))
-                .extraData(extraData)
-                .user(user)
-                .build();
-        
-        notificationRepository.save(notification);
+    // === Helper methods: Tìm kiếm & phân trang ===
+    
+    /**
+     * Kiểm tra tính hợp lệ của bộ lọc (khoảng ngày, khoảng số tiền)
+     */
+    public void validateFilter(TransactionFilterRequest filter) {
+        if (filter.getStartDate() != null && filter.getEndDate() != null
+                && filter.getStartDate().isAfter(filter.getEndDate())) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Ngày bắt đầu phải trước ngày kết thúc");
+        }
+        if (filter.getMinAmount() != null && filter.getMaxAmount() != null
+                && filter.getMinAmount().compareTo(filter.getMaxAmount()) > 0) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Số tiền tối thiểu phải nhỏ hơn số tiền tối đa");
+        }
     }
     
-    private void sendBudgetExceededNotification(User user, String categoryName,
-                                                 BigDecimal spent, BigDecimal budget) {
-        BigDecimal exceeded = spent.subtract(budget);
-        String extraData = String.format(
-                "{\"categoryName\":\"%s\",\"exceeded\":%s}", categoryName, exceeded);
-        
-        Notification notification = Notification.builder()
-                .type(NotificationType.BUDGET_EXCEEDED)
-                .title("🚨 Vượt ngân sách: " + categoryName)
-                .message(String.format("Bạn đã vượt ngân sách %s với số tiền %s!",
-                        categoryName, formatCurrency(exceeded)))
-                .extraData(extraData)
-                .user(user)
-                .build();
+    /**
+     * Kích thước trang hợp lệ: mặc định nếu không truyền, tối đa maxPageSize
+     */
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Kích thước trang phải lớn hơn 0");
+        }
+        return Math.min(size, maxPageSize);
+    }
+    
+    private CursorPage<TransactionResponse> toPage(List<TransactionResponse> rows, int pageSize,
+                                                   TransactionSort sort) {
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
         
-        notificationRepository.save(notification);
+        String nextCursor = hasMore
+                ? TransactionCursor.after(items.get(items.size() - 1), sort).encode()
+                : null;
+        
+        return new CursorPage<>(items, nextCursor);
     }
     
-    private String formatCurrency(BigDecimal amount) {
-        return String.format("%,.0f đ", amount);
+    /**
+     * Làm tròn số tiền về 2 chữ số thập phân (cột DECIMAL(15, 2)) trước khi tạo entity / snapshot,
+     * giống TransactionImportService: client có thể gửi 12.345 hoặc 0.30000000000000004
+     */
+    private static BigDecimal roundAmount(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
     }
     
     // === Helper method: Convert Entity -> DTO ===
@@ -0,0 +1,191 @@
+package com.thotran.sochitieu.repository;
+
+import com.thotran.sochitieu.dto.request.TransactionSort;
+import com.thotran.sochitieu.dto.response.TransactionResponse;
+import com.thotran.sochitieu.entity.Transaction;
+import com.thotran.sochitieu.exception.AppException;
+import com.thotran.sochitieu.exception.ErrorCode;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionCursorTest {
+    
+    // Nhiều giao dịch trùng ngày / trùng số tiền, id không theo thứ tự khóa sắp xếp
+    private static final List<TransactionResponse> ROWS = List.of(
+            row(1, "50000.00", "2024-03-01"),
+            row(2, "120000.00", "2024-03-02"),
+            row(3, "50000.00", "2024-03-01"),
+            row(4, "50000.00", "2024-03-01"),
+            row(5, "75000.00", "2024-03-01"),
+            row(6, "50000.00", "2024-02-28"),
+            row(7, "120000.00", "2024-03-01"),
+            row(8, "50000.00", "2024-03-02"),
+            row(9, "75000.00", "2024-03-01"));
+    
+    @Test
+    void decodeReturnsNullForFirstPage() {
+        assertNull(TransactionCursor.decode(null, TransactionSort.DATE_DESC));
+        assertNull(TransactionCursor.decode(" ", TransactionSort.DATE_DESC));
+    }
+    
+    @Test
+    void decodeRejectsMalformedCursor() {
+        assertInvalid("%%%", TransactionSort.DATE_DESC);
+        assertInvalid(encode("DATE_DESC|2024-03-01"), TransactionSort.DATE_DESC);
+        assertInvalid(encode("DATE_DESC|2024-03-01|5|1"), TransactionSort.DATE_DESC);
+        assertInvalid(encode("UNKNOWN|2024-03-01|5"), TransactionSort.DATE_DESC);
+        assertInvalid(encode("DATE_DESC|not-a-date|5"), TransactionSort.DATE_DESC);
+        assertInvalid(encode("DATE_DESC|2024-03-01|five"), TransactionSort.DATE_DESC);
+        assertInvalid(encode("AMOUNT_DESC|abc|5"), TransactionSort.AMOUNT_DESC);
+        // Cursor của kiểu sắp xếp khác
+        assertInvalid(encode("AMOUNT_DESC|50000.00|5"), TransactionSort.DATE_DESC);
+    }
+    
+    @Test
+    void encodeDecodeRoundTrips() {
+        for (TransactionSort sort : TransactionSort.values()) {
+            TransactionCursor cursor = TransactionCursor.after(ROWS.get(3), sort);
+            
+            assertEquals(cursor, TransactionCursor.decode(cursor.encode(), sort));
+        }
+    }
+    
+    @Test
+    void pagingAcrossEqualSortKeysVisitsEveryRowOnce() {
+        for (TransactionSort sort : TransactionSort.values()) {
+            List<Long> expected = ROWS.stream().sorted(order(sort)).map(TransactionResponse::getId).toList();
+            
+            for (int pageSize = 1; pageSize <= ROWS.size(); pageSize++) {
+                assertEquals(expected, pageThrough(sort, pageSize), sort + ", page size " + pageSize);
+            }
+        }
+    }
+    
+    // === Helper methods ===
+    
+    /**
+     * Phân trang giống TransactionService.search: lọc bằng TransactionSpecifications.after,
+     * sắp xếp như TransactionRepositoryCustomImpl (khóa rồi id), lấy dư 1 dòng
+     */
+    private static List<Long> pageThrough(TransactionSort sort, int pageSize) {
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            Specification<Transaction> spec = TransactionSpecifications.after(TransactionCursor.decode(cursor, sort));
+            Predicate<TransactionResponse> filter = spec == null ? row -> true : evaluate(spec);
+            
+            List<TransactionResponse> rows = ROWS.stream().filter(filter).sorted(order(sort))
+                    .limit(pageSize + 1L).toList();
+            boolean hasMore = rows.size() > pageSize;
+            List<TransactionResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+            
+            items.forEach(item -> visited.add(item.getId()));
+            cursor = hasMore ? TransactionCursor.after(items.get(items.size() - 1), sort).encode() : null;
+        } while (cursor != null && visited.size() <= ROWS.size());
+        return visited;
+    }
+    
+    private static Comparator<TransactionResponse> order(TransactionSort sort) {
+        Comparator<TransactionResponse> order = sort.isByAmount()
+                ? Comparator.comparing(TransactionResponse::getAmount)
+                : Comparator.comparing(TransactionResponse::getTransactionDate);
+        order = order.thenComparing(TransactionResponse::getId);
+        return sort.isDescending() ? order.reversed() : order;
+    }
+    
+    /**
+     * Dịch Specification thành điều kiện trong bộ nhớ: CriteriaBuilder giả chỉ hỗ trợ
+     * các phép so sánh / and / or mà điều kiện keyset dùng tới
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate<TransactionResponse> evaluate(Specification<Transaction> spec) {
+        Map<Object, Function<TransactionResponse, Object>> paths = new IdentityHashMap<>();
+        Map<Object, Predicate<TransactionResponse>> predicates = new IdentityHashMap<>();
+        
+        Root<Transaction> root = proxy(Root.class, (method, args) -> {
+            Object path = proxy(jakarta.persistence.criteria.Path.class, TransactionCursorTest::unsupported);
+            paths.put(path, attribute((String) args[0]));
+            return path;
+        });
+        
+        CriteriaBuilder cb = proxy(CriteriaBuilder.class, (method, args) -> {
+            Predicate<TransactionResponse> condition = switch (method.getName()) {
+                case "and" -> predicates.get(args[0]).and(predicates.get(args[1]));
+                case "or" -> predicates.get(args[0]).or(predicates.get(args[1]));
+                default -> {
+                    IntPredicate test = switch (method.getName()) {
+                        case "lessThan" -> result -> result < 0;
+                        case "greaterThan" -> result -> result > 0;
+                        case "equal" -> result -> result == 0;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                    Function<TransactionResponse, Object> value = paths.get(args[0]);
+                    Object bound = args[1];
+                    yield row -> test.test(((Comparable<Object>) value.apply(row)).compareTo(bound));
+                }
+            };
+            Object predicate = proxy(jakarta.persistence.criteria.Predicate.class, TransactionCursorTest::unsupported);
+            predicates.put(predicate, condition);
+            return predicate;
+        });
+        
+        return predicates.get(spec.toPredicate(root, null, cb));
+    }
+    
+    private static Function<TransactionResponse, Object> attribute(String name) {
+        return switch (name) {
+            case "id" -> TransactionResponse::getId;
+            case "amount" -> TransactionResponse::getAmount;
+            case "transactionDate" -> TransactionResponse::getTransactionDate;
+            default -> throw new UnsupportedOperationException(name);
+        };
+    }
+    
+    private static <T> T proxy(Class<T> type, BiFunction<Method, Object[], Object> handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> handler.apply(method, args)));
+    }
+    
+    private static Object unsupported(Method method, Object[] args) {
+        throw new UnsupportedOperationException(method.getName());
+    }
+    
+    private static void assertInvalid(String cursor, TransactionSort sort) {
+        AppException ex = assertThrows(AppException.class, () -> TransactionCursor.decode(cursor, sort));
+        assertEquals(ErrorCode.INVALID_CURSOR, ex.getErrorCode(), cursor);
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static TransactionResponse row(long id, String amount, String date) {
+        return TransactionResponse.builder()
+                .id(id)
+                .amount(new BigDecimal(amount))
+                .transactionDate(LocalDate.parse(date))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.thotran.sochitieu.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+    
+    @Test
+    void ofConvertsToMinorUnits() {
+        assertEquals(12345, Money.of(new BigDecimal("123.45")).minorUnits());
+        assertEquals(12340, Money.of(new BigDecimal("123.4")).minorUnits());
+        assertEquals(-5, Money.of(new BigDecimal("-0.05")).minorUnits());
+        assertEquals(100, Money.of(new BigDecimal("1.000")).minorUnits());
+        assertSame(Money.ZERO, Money.of(null));
+        assertEquals(new BigDecimal("123.45"), Money.of(new BigDecimal("123.45")).toBigDecimal());
+    }
+    
+    @Test
+    void ofRejectsMoreThanTwoDecimals() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001")));
+    }
+    
+    @Test
+    void ofRejectsValuesOutsideLongRange() {
+        BigDecimal tooLarge = BigDecimal.valueOf(Long.MAX_VALUE, 2).add(new BigDecimal("0.01"));
+        assertThrows(ArithmeticException.class, () -> Money.of(tooLarge));
+    }
+    
+    @Test
+    void arithmeticFailsOnOverflow() {
+        Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinorUnits(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinorUnits(Long.MIN_VALUE).negate());
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+    }
+    
+    @Test
+    void percentOfRoundsHalfUpAwayFromZero() {
+        Money whole = Money.ofMinorUnits(20_000);
+        
+        // 1 / 20000 = 0.00005 -> 0.0001 -> 0.01%
+        assertEquals(0.01, Money.ofMinorUnits(1).percentOf(whole));
+        assertEquals(-0.01, Money.ofMinorUnits(-1).percentOf(whole));
+        assertEquals(-0.01, Money.ofMinorUnits(1).percentOf(whole.negate()));
+        assertEquals(0.0, Money.ofMinorUnits(1).percentOf(Money.ofMinorUnits(20_001)));
+        assertEquals(33.33, Money.ofMinorUnits(1).percentOf(Money.ofMinorUnits(3)));
+        assertEquals(66.67, Money.ofMinorUnits(2).percentOf(Money.ofMinorUnits(3)));
+        assertEquals(150.0, Money.ofMinorUnits(3).percentOf(Money.ofMinorUnits(2)));
+    }
+    
+    @Test
+    void percentOfZeroWholeThrows() {
+        assertThrows(ArithmeticException.class, () -> Money.ofMinorUnits(1).percentOf(Money.ZERO));
+    }
+    
+    @Test
+    void percentOfLargeAmountsFallsBackToBigDecimal() {
+        Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+        Money min = Money.ofMinorUnits(Long.MIN_VALUE);
+        
+        assertEquals(100.0, max.percentOf(max));
+        assertEquals(100.0, min.percentOf(min));
+        assertEquals(-100.0, max.percentOf(max.negate()));
+        assertEquals(expected(min, max), min.percentOf(max));
+        assertEquals(expected(max, Money.ofMinorUnits(3)), max.percentOf(Money.ofMinorUnits(3)));
+        assertEquals(expected(Money.ofMinorUnits(7), min), Money.ofMinorUnits(7).percentOf(min));
+    }
+    
+    @Test
+    void percentOfMatchesBigDecimal() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Trộn số nhỏ (nhiều trường hợp làm tròn) với số gần ngưỡng tính bằng BigDecimal
+            long bound = i % 2 == 0 ? 1_000_000 : Long.MAX_VALUE / 5_000;
+            Money part = Money.ofMinorUnits(random.nextLong(-bound, bound));
+            Money whole = Money.ofMinorUnits(random.nextLong(-bound, bound));
+            if (whole.signum() == 0) {
+                continue;
+            }
+            assertEquals(expected(part, whole), part.percentOf(whole), () -> part + " / " + whole);
+        }
+    }
+    
+    private static double expected(Money part, Money whole) {
+        return part.toBigDecimal().divide(whole.toBigDecimal(), 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .doubleValue();
+    }
+}
@@ -0,0 +1,148 @@
+package com.thotran.sochitieu.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TDigestTest {
+    
+    private static final double COMPRESSION = 100;
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+    
+    @Test
+    void quantileOfUniformDistribution() {
+        int n = 100_000;
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        shuffle(values, new Random(7));
+        
+        TDigest digest = TDigest.create(COMPRESSION);
+        for (double value : values) {
+            digest.add(value);
+        }
+        
+        assertEquals(n, digest.count());
+        assertEquals(0, digest.quantile(0));
+        assertEquals(n - 1, digest.quantile(1));
+        // Giá trị i có hạng i nên sai số hạng = |ước lượng - q * n|
+        for (double q : QUANTILES) {
+            double rankError = Math.abs(digest.quantile(q) - q * n) / n;
+            assertTrue(rankError <= maxRankError(q), "q=" + q + " rank error " + rankError);
+        }
+    }
+    
+    @Test
+    void quantileOfNormalDistribution() {
+        Random random = new Random(11);
+        double[] values = new double[50_000];
+        TDigest digest = TDigest.create(COMPRESSION);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 500_000 + 150_000 * random.nextGaussian();
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+        
+        for (double q : QUANTILES) {
+            double rankError = Math.abs(rank(values, digest.quantile(q)) - q);
+            assertTrue(rankError <= maxRankError(q), "q=" + q + " rank error " + rankError);
+        }
+    }
+    
+    @Test
+    void serializedDigestRoundTrips() {
+        Random random = new Random(3);
+        TDigest digest = TDigest.create(COMPRESSION);
+        for (int i = 0; i < 10_000; i++) {
+            digest.add(random.nextDouble() * 1_000);
+        }
+        
+        byte[] bytes = digest.toBytes();
+        TDigest restored = TDigest.fromBytes(bytes);
+        
+        assertArrayEquals(bytes, restored.toBytes());
+        assertEquals(digest.count(), restored.count());
+        for (double q : QUANTILES) {
+            assertEquals(digest.quantile(q), restored.quantile(q));
+        }
+    }
+    
+    @Test
+    void emptyDigestRoundTrips() {
+        TDigest restored = TDigest.fromBytes(TDigest.create(COMPRESSION).toBytes());
+        
+        assertEquals(0, restored.count());
+        assertTrue(Double.isNaN(restored.quantile(0.5)));
+        
+        restored.add(42);
+        assertEquals(42, restored.quantile(0.5));
+    }
+    
+    @Test
+    void addingThroughSerializationKeepsAccuracyAndSize() {
+        // Giống SpendingSketchService: mỗi giao dịch đọc digest, thêm một giá trị rồi ghi lại
+        int n = 20_000;
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        shuffle(values, new Random(5));
+        
+        byte[] bytes = TDigest.create(COMPRESSION).toBytes();
+        int maxSize = 0;
+        for (double value : values) {
+            TDigest digest = TDigest.fromBytes(bytes);
+            digest.add(value);
+            bytes = digest.toBytes();
+            maxSize = Math.max(maxSize, bytes.length);
+        }
+        
+        TDigest digest = TDigest.fromBytes(bytes);
+        assertEquals(n, digest.count());
+        // Các centroid liền kề được gộp: số centroid bị chặn theo compression, không theo số giá trị
+        assertTrue(maxSize <= 1 + 8 * 3 + 4 + 16 * (int) (2 * COMPRESSION), "size " + maxSize);
+        for (double q : QUANTILES) {
+            double rankError = Math.abs(digest.quantile(q) - q * n) / n;
+            assertTrue(rankError <= maxRankError(q), "q=" + q + " rank error " + rankError);
+        }
+    }
+    
+    @Test
+    void rejectsUnknownFormatAndInvalidQuantile() {
+        byte[] bytes = TDigest.create(COMPRESSION).toBytes();
+        bytes[0] = 2;
+        
+        assertThrows(IllegalArgumentException.class, () -> TDigest.fromBytes(bytes));
+        assertThrows(IllegalArgumentException.class, () -> TDigest.create(COMPRESSION).quantile(1.5));
+    }
+    
+    // === Helper methods ===
+    
+    // Sai số hạng cho phép: nhỏ hơn ở hai đầu phân phối (hàm tỷ lệ k1)
+    private static double maxRankError(double q) {
+        return Math.min(0.005, 0.5 * Math.min(q, 1 - q) + 0.0005);
+    }
+    
+    // Tỷ lệ giá trị nhỏ hơn hoặc bằng x trong mảng đã sắp xếp
+    private static double rank(double[] sorted, double x) {
+        int position = Arrays.binarySearch(sorted, x);
+        int below = position >= 0 ? position + 1 : -position - 1;
+        return (double) below / sorted.length;
+    }
+    
+    private static void shuffle(double[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.thotran.sochitieu.service;
+
+import com.thotran.sochitieu.dto.request.TransactionBatchRequest;
+import com.thotran.sochitieu.dto.request.TransactionRequest;
+import com.thotran.sochitieu.dto.response.BatchCreateResultResponse;
+import com.thotran.sochitieu.dto.response.TransactionResponse;
+import com.thotran.sochitieu.entity.Category;
+import com.thotran.sochitieu.entity.Transaction;
+import com.thotran.sochitieu.entity.TransactionType;
+import com.thotran.sochitieu.entity.User;
+import com.thotran.sochitieu.event.TransactionChangedEvent;
+import com.thotran.sochitieu.event.TransactionSnapshot;
+import com.thotran.sochitieu.repository.CategoryRepository;
+import com.thotran.sochitieu.repository.TransactionRepository;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+    
+    private static final Long USER_ID = 1L;
+    private static final Long CATEGORY_ID = 10L;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private CategoryService categoryService;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private Validator validator;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @InjectMocks
+    private TransactionService transactionService;
+    
+    private final User user = User.builder().id(USER_ID).build();
+    private final Category category = Category.builder().id(CATEGORY_ID).name("Ăn uống").build();
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionService, "maxBatchItems", 500);
+        when(userService.getUserEntity(USER_ID)).thenReturn(user);
+    }
+    
+    @Test
+    void createRoundsAmountWithMoreThanTwoDecimals() {
+        when(categoryService.getCategoryEntity(USER_ID, CATEGORY_ID)).thenReturn(category);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        TransactionResponse response = transactionService.create(USER_ID, request("12.345"));
+        
+        assertEquals(new BigDecimal("12.35"), response.getAmount());
+        // Listener tổng hợp (đồng bộ, trong transaction ghi) đổi số tiền sang Money mà không lỗi
+        TransactionSnapshot snapshot = publishedEvent().added().get(0);
+        assertEquals(1235, Money.of(snapshot.amount()).minorUnits());
+    }
+    
+    @Test
+    void createBatchRoundsFloatingPointAmounts() {
+        when(categoryRepository.findByIdInAndUserId(anyCollection(), eq(USER_ID))).thenReturn(List.of(category));
+        TransactionBatchRequest batch = new TransactionBatchRequest();
+        batch.setTransactions(List.of(request("0.30000000000000004"), request("12.345")));
+        
+        BatchCreateResultResponse result = transactionService.createBatch(USER_ID, batch);
+        
+        assertEquals(2, result.getCreatedCount());
+        assertEquals(0, result.getFailedCount());
+        List<TransactionSnapshot> added = publishedEvent().added();
+        assertEquals(30, Money.of(added.get(0).amount()).minorUnits());
+        assertEquals(1235, Money.of(added.get(1).amount()).minorUnits());
+    }
+    
+    // === Helper methods ===
+    
+    private TransactionChangedEvent publishedEvent() {
+        ArgumentCaptor<TransactionChangedEvent> captor = ArgumentCaptor.forClass(TransactionChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        return captor.getValue();
+    }
+    
+    private static TransactionRequest request(String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setType(TransactionType.EXPENSE);
+        request.setTransactionDate(LocalDate.of(2024, 3, 1));
+        request.setCategoryId(CATEGORY_ID);
+        return request;
+    }
+}